@@ -5,8 +5,16 @@ import junit.framework.Test;
 import junit.framework.TestSuite;
 
 import bll.EditorBO;
+import bll.InvertedIndex;
+import bll.SearchIndexer;
 import dal.IFacadeDAO;
 import dto.Documents;
+import dto.FileSummary;
+import dto.PageUpdate;
+import dto.Pages;
+import dto.RebalanceResult;
+import dto.SearchMode;
+import dto.SearchResult;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -34,7 +42,8 @@ public class EditorBOTest extends TestCase {
     protected void setUp() throws Exception {
         super.setUp();
         mockDAO = new MockFacadeDAO();
-        editorBO = new EditorBO(mockDAO);
+        // An in-memory index that is never built keeps the tests free of threads and disk I/O
+        editorBO = new EditorBO(mockDAO, new SearchIndexer(mockDAO, new InvertedIndex()));
     }
     
     protected void tearDown() throws Exception {
@@ -209,7 +218,7 @@ public class EditorBOTest extends TestCase {
         String fileName = "updated.txt";
         int pageNumber = 1;
         String content = "Updated content";
-        mockDAO.setUpdateFileResult(true);
+        mockDAO.setUpdateFileResult(PageUpdate.UPDATED);
         
         // Act
         boolean result = editorBO.updateFile(fileId, fileName, pageNumber, content);
@@ -220,6 +229,32 @@ public class EditorBOTest extends TestCase {
         assertEquals("DAO should be called with correct content", content, mockDAO.getLastContent());
     }
     
+    /**
+     * Test that saving a page with unchanged text keeps the open file cached
+     */
+    public void testUpdateFile_UnchangedPage_KeepsCachedDocument() {
+        // Arrange
+        List<dto.Pages> pages = new ArrayList<>();
+        pages.add(new dto.Pages(1, 1, 1, "content"));
+        List<Documents> docs = new ArrayList<>();
+        docs.add(new Documents(1, "test.txt", "hash", "2024-01-01", "2024-01-01", pages));
+        mockDAO.setDocuments(docs);
+        editorBO.getFile(1);
+
+        // Act
+        mockDAO.setUpdateFileResult(PageUpdate.UNCHANGED);
+        boolean unchanged = editorBO.updateFile(1, "test.txt", 1, "content");
+        editorBO.getFile(1);
+        mockDAO.setUpdateFileResult(PageUpdate.UPDATED);
+        boolean updated = editorBO.updateFile(1, "test.txt", 1, "new content");
+        editorBO.getFile(1);
+
+        // Assert
+        assertTrue("An unchanged save should still succeed", unchanged);
+        assertTrue("A changed save should succeed", updated);
+        assertEquals("Only the changed save should reload the file", 2, mockDAO.getFileLoads());
+    }
+    
     /**
      * Test file deletion with valid ID
      */
@@ -236,6 +271,119 @@ public class EditorBOTest extends TestCase {
         assertEquals("DAO should be called with correct file ID", fileId, mockDAO.getLastFileId());
     }
     
+    /**
+     * Test root search with a short word
+     */
+    public void testSearchMorphology_ShortWord_ThrowsException() {
+        try {
+            // Act
+            editorBO.searchMorphology("كت", SearchMode.ROOT);
+            fail("Search should reject words shorter than 3 letters");
+        } catch (IllegalArgumentException e) {
+            // Assert
+            assertTrue("Message should ask for 3 letters", e.getMessage().contains("at least 3 letter"));
+        }
+    }
+    
+    /**
+     * Test root search with a valid word
+     */
+    public void testSearchMorphology_ValidWord_ReturnsPages() {
+        // Act
+        List<SearchResult> results = editorBO.searchMorphology(" كتاب ", SearchMode.ROOT);
+        
+        // Assert
+        assertEquals("DAO results should be returned", 1, results.size());
+        assertEquals("DAO should be called with the trimmed word", "كتاب", results.get(0).getWord());
+    }
+    
+    /**
+     * Test that a restored index re-reads files changed or deleted while it was closed
+     */
+    public void testSearchKeyword_StaleRestoredIndex_Reconciled() {
+        // Arrange
+        List<Pages> pages = new ArrayList<>();
+        pages.add(new Pages(1, 1, 1, "قرأ الولد الكتاب"));
+        List<Documents> docs = new ArrayList<>();
+        docs.add(new Documents(1, "first.txt", "hash", null, null, pages));
+        mockDAO.setDocuments(docs);
+        InvertedIndex restored = new InvertedIndex();
+        restored.setFileName(1, "first.txt");
+        restored.addPage(1, 1, "ذهب الولد إلى المدرسة");
+        restored.setFileName(2, "deleted.txt");
+        restored.addPage(2, 1, "الكتاب مفيد");
+        SearchIndexer indexer = new SearchIndexer(mockDAO, restored);
+        indexer.start();
+        editorBO = new EditorBO(mockDAO, indexer);
+        
+        // Act
+        List<String> results = editorBO.searchKeyword("الكتاب");
+        
+        // Assert
+        assertEquals("Only the changed file should be found", 1, results.size());
+        assertTrue("The file should be found by its new content", results.get(0).startsWith("first.txt"));
+        assertEquals("Old words should be gone", 0, editorBO.searchKeyword("المدرسة").size());
+    }
+    
+    /**
+     * Test that a merge re-indexes the merged page and drops the page number it freed
+     */
+    public void testRebalancePage_Merged_ReindexesChangedPagesOnly() {
+        // Arrange
+        editorBO = startedEditor("قرأ الولد الكتاب", "ذهب إلى المدرسة");
+        List<Pages> merged = new ArrayList<>();
+        merged.add(new Pages(1, 1, 1, "قرأ الولد الكتاب ذهب إلى المدرسة"));
+        setFilePages(merged);
+        mockDAO.setRebalanceResult(new RebalanceResult(1, 1, 1, -1));
+        
+        // Act
+        int page = editorBO.rebalancePage(1, 2);
+        List<SearchResult> results = editorBO.searchPhrase("الكتاب ذهب");
+        
+        // Assert
+        assertEquals("The merged text starts on page 1", 1, page);
+        assertEquals("The joined words should be found on page 1", 1, results.size());
+        assertEquals("The match is on page 1", 1, results.get(0).getPageNumber());
+        assertEquals("Page 2 should be gone from the index", 1, editorBO.searchPhrase("المدرسة").get(0).getPageNumber());
+    }
+    
+    /**
+     * Test that a rebalance that moved nothing does not re-read the file
+     */
+    public void testRebalancePage_NothingMoved_IndexNotReread() {
+        // Arrange
+        editorBO = startedEditor("قرأ الولد الكتاب", "ذهب إلى المدرسة");
+        List<Pages> changed = new ArrayList<>();
+        changed.add(new Pages(1, 1, 1, "كتب الطالب الدرس"));
+        setFilePages(changed);
+        
+        // Act
+        int page = editorBO.rebalancePage(1, 1);
+        
+        // Assert
+        assertEquals("The page keeps its number", 1, page);
+        assertEquals("The file should not have been read again", 0, editorBO.searchKeyword("الطالب").size());
+    }
+    
+    private EditorBO startedEditor(String... pageContents) {
+        List<Pages> pages = new ArrayList<>();
+        for (int i = 0; i < pageContents.length; i++) {
+            pages.add(new Pages(i + 1, 1, i + 1, pageContents[i]));
+        }
+        setFilePages(pages);
+        SearchIndexer indexer = new SearchIndexer(mockDAO, new InvertedIndex());
+        indexer.start();
+        EditorBO editor = new EditorBO(mockDAO, indexer);
+        editor.searchKeyword("الكتاب");
+        return editor;
+    }
+    
+    private void setFilePages(List<Pages> pages) {
+        List<Documents> docs = new ArrayList<>();
+        docs.add(new Documents(1, "first.txt", "hash", null, null, pages));
+        mockDAO.setDocuments(docs);
+    }
+    
     /**
      * Helper method to create temporary file for testing
      */
@@ -258,22 +406,26 @@ public class EditorBOTest extends TestCase {
      */
     private class MockFacadeDAO implements IFacadeDAO {
         private boolean createFileResult = true;
-        private boolean updateFileResult = true;
+        private PageUpdate updateFileResult = PageUpdate.UPDATED;
         private boolean deleteFileResult = true;
         private List<Documents> documents = new ArrayList<>();
+        private RebalanceResult rebalanceResult;
         
         private String lastFileName;
         private String lastContent;
         private int lastFileId;
+        private int fileLoads;
         
         public void setCreateFileResult(boolean result) { this.createFileResult = result; }
-        public void setUpdateFileResult(boolean result) { this.updateFileResult = result; }
+        public void setUpdateFileResult(PageUpdate result) { this.updateFileResult = result; }
         public void setDeleteFileResult(boolean result) { this.deleteFileResult = result; }
         public void setDocuments(List<Documents> docs) { this.documents = docs; }
+        public void setRebalanceResult(RebalanceResult result) { this.rebalanceResult = result; }
         
         public String getLastFileName() { return lastFileName; }
         public String getLastContent() { return lastContent; }
         public int getLastFileId() { return lastFileId; }
+        public int getFileLoads() { return fileLoads; }
         
         public boolean createFileInDB(String nameOfFile, String content) {
             this.lastFileName = nameOfFile;
@@ -281,7 +433,25 @@ public class EditorBOTest extends TestCase {
             return createFileResult;
         }
         
-        public boolean updateFileInDB(int id, String fileName, int pageNumber, String content) {
+        public boolean createFileInDB(String nameOfFile, java.io.Reader content) {
+            StringBuilder text = new StringBuilder();
+            try {
+                char[] buffer = new char[1024];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    text.append(buffer, 0, read);
+                }
+            } catch (java.io.IOException e) {
+                return false;
+            }
+            return createFileInDB(nameOfFile, text.toString());
+        }
+        
+        public RebalanceResult rebalancePageInDB(int fileId, int pageNumber) {
+            return rebalanceResult != null ? rebalanceResult : new RebalanceResult(pageNumber);
+        }
+        
+        public PageUpdate updateFileInDB(int id, String fileName, int pageNumber, String content) {
             this.lastFileId = id;
             this.lastFileName = fileName;
             this.lastContent = content;
@@ -297,6 +467,85 @@ public class EditorBOTest extends TestCase {
             return documents;
         }
         
+        public Documents getFileById(int id) {
+            fileLoads++;
+            for (Documents doc : documents) {
+                if (doc.getId() == id) {
+                    return doc;
+                }
+            }
+            return null;
+        }
+        
+        public List<Pages> getPagesFromDB(int fileId, int firstPage, int lastPage) {
+            List<Pages> pages = new ArrayList<>();
+            Documents doc = getFileById(fileId);
+            if (doc != null) {
+                for (Pages page : doc.getPages()) {
+                    if (page.getPageNumber() >= firstPage && page.getPageNumber() <= lastPage) {
+                        pages.add(page);
+                    }
+                }
+            }
+            return pages;
+        }
+        
+        public int getPageCountFromDB(int fileId) {
+            Documents doc = getFileById(fileId);
+            return doc == null ? 0 : doc.getPages().size();
+        }
+        
+        public int readCorpus(dal.CorpusReader.PageConsumer consumer) {
+            int count = 0;
+            try {
+                for (Documents doc : documents) {
+                    for (Pages page : doc.getPages()) {
+                        consumer.accept(doc.getId(), page.getPageNumber(), page.getPageContent());
+                        count++;
+                    }
+                }
+            } catch (java.sql.SQLException e) {
+                return -1;
+            }
+            return count;
+        }
+        
+        public int readPageHashes(dal.CorpusReader.PageConsumer consumer) {
+            return readCorpus((fileId, pageNumber, content) -> {
+                try {
+                    consumer.accept(fileId, pageNumber, dal.HashCalculator.calculateHash(content));
+                } catch (Exception e) {
+                    throw new java.sql.SQLException(e);
+                }
+            });
+        }
+        
+        public Map<Integer, String> getLastPageContents() {
+            Map<Integer, String> contents = new HashMap<>();
+            for (Documents doc : documents) {
+                List<Pages> pages = doc.getPages();
+                if (!pages.isEmpty()) {
+                    contents.put(doc.getId(), pages.get(pages.size() - 1).getPageContent());
+                }
+            }
+            return contents;
+        }
+        
+        public List<FileSummary> listFileSummaries() {
+            List<FileSummary> summaries = new ArrayList<>();
+            for (Documents doc : documents) {
+                summaries.add(new FileSummary(doc.getId(), doc.getName(), doc.getHash(),
+                        doc.getLastModified(), doc.getDateCreated(), doc.getPages().size(), 0));
+            }
+            return summaries;
+        }
+        
+        public List<SearchResult> searchByMorphology(String word, SearchMode mode) {
+            List<SearchResult> results = new ArrayList<>();
+            results.add(new SearchResult(1, "test.txt", 1, word));
+            return results;
+        }
+
         public String transliterateInDB(int pageId, String arabicText) {
             return "transliterated: " + arabicText;
         }
@@ -0,0 +1,100 @@
+package business;
+
+import junit.framework.TestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Collections;
+
+import dal.AnalysisCache;
+import dto.WordAnalysis;
+
+/**
+ * Test Class: AnalysisCacheTest
+ * Purpose: Test bounded segmented-LRU caching of token analyses
+ */
+public class AnalysisCacheTest extends TestCase {
+
+    private AnalysisCache cache;
+
+    public AnalysisCacheTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return new TestSuite(AnalysisCacheTest.class);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        cache = new AnalysisCache(10);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        cache = null;
+    }
+
+    private WordAnalysis analysisOf(String word) {
+        return new WordAnalysis(word, word, word, word, Collections.singletonList("noun"), word);
+    }
+
+    /**
+     * Test that a stored analysis is returned and counted as a hit
+     */
+    public void testGet_StoredToken_ReturnsAnalysisAndCountsHit() {
+        // Arrange
+        cache.put("كتاب", analysisOf("كتاب"));
+
+        // Act
+        WordAnalysis result = cache.get("كتاب");
+
+        // Assert
+        assertNotNull("Stored token should be returned", result);
+        assertEquals("Hit should be counted", 1, cache.getHitCount());
+        assertEquals("No miss should be counted", 0, cache.getMissCount());
+    }
+
+    /**
+     * Test that an unknown token is counted as a miss
+     */
+    public void testGet_UnknownToken_ReturnsNullAndCountsMiss() {
+        // Act
+        WordAnalysis result = cache.get("قلم");
+
+        // Assert
+        assertNull("Unknown token should not be returned", result);
+        assertEquals("Miss should be counted", 1, cache.getMissCount());
+    }
+
+    /**
+     * Test that the cache never grows beyond its bound
+     */
+    public void testPut_BeyondCapacity_EvictsEntries() {
+        // Act
+        for (int i = 0; i < 25; i++) {
+            cache.put("word" + i, analysisOf("word" + i));
+        }
+
+        // Assert
+        assertEquals("Cache should stay at its maximum size", 10, cache.size());
+        assertEquals("Overflowing entries should be evicted", 15, cache.getEvictionCount());
+    }
+
+    /**
+     * Test that frequently used tokens survive a scan of one-off tokens
+     */
+    public void testPut_ScanOfOneOffTokens_KeepsFrequentToken() {
+        // Arrange
+        cache.put("frequent", analysisOf("frequent"));
+        cache.get("frequent");
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            cache.put("once" + i, analysisOf("once" + i));
+        }
+
+        // Assert
+        assertNotNull("Promoted token should survive the scan", cache.get("frequent"));
+    }
+}
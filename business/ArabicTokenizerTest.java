@@ -0,0 +1,79 @@
+package business;
+
+import junit.framework.TestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.List;
+
+import dal.ArabicTokenizer;
+
+/**
+ * Test Class: ArabicTokenizerTest
+ * Purpose: Test offset-based whitespace tokenization shared by the analyzers and calculators
+ */
+public class ArabicTokenizerTest extends TestCase {
+
+    public ArabicTokenizerTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ArabicTokenizerTest.class);
+    }
+
+    /**
+     * Test that tokens match split on whitespace runs
+     */
+    public void testTokens_MixedWhitespace_MatchesSplit() {
+        // Arrange
+        String text = "بسم الله\tالرحمن\r\n\nالرحيم ";
+
+        // Act
+        List<String> tokens = ArabicTokenizer.tokens(text);
+
+        // Assert
+        assertEquals("Tokens should match split on whitespace", Arrays.asList(text.split("\\s+")), tokens);
+    }
+
+    /**
+     * Test that leading whitespace does not produce an empty token
+     */
+    public void testTokens_LeadingWhitespace_NoEmptyToken() {
+        // Act
+        List<String> tokens = ArabicTokenizer.tokens("   كتاب قلم");
+
+        // Assert
+        assertEquals("Only the two words should be returned", Arrays.asList("كتاب", "قلم"), tokens);
+    }
+
+    /**
+     * Test that empty and blank text have no tokens
+     */
+    public void testCount_EmptyAndBlankText_ReturnsZero() {
+        // Act & Assert
+        assertEquals("Empty text should have no tokens", 0, ArabicTokenizer.count(""));
+        assertEquals("Blank text should have no tokens", 0, ArabicTokenizer.count(" \n\t "));
+    }
+
+    /**
+     * Test that offsets, hash and comparison refer to the current token
+     */
+    public void testNext_Offsets_DescribeCurrentToken() {
+        // Arrange
+        ArabicTokenizer tokens = new ArabicTokenizer("  Alpha beta");
+
+        // Act
+        tokens.next();
+        tokens.next();
+
+        // Assert
+        assertEquals("Start offset of second token", 8, tokens.start());
+        assertEquals("End offset of second token", 12, tokens.end());
+        assertEquals("Hash should match the substring hash", "beta".hashCode(), tokens.tokenHash());
+        assertTrue("Comparison should ignore case when asked", tokens.tokenEquals("BETA", true));
+        assertFalse("Comparison should respect case by default", tokens.tokenEquals("BETA", false));
+        assertFalse("No token should follow the last one", tokens.next());
+    }
+}
@@ -0,0 +1,108 @@
+package business;
+
+import junit.framework.TestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+
+import bll.DocumentCache;
+import dto.Documents;
+
+/**
+ * Test Class: DocumentCacheTest
+ * Purpose: Test bounded caching and invalidation of opened documents
+ */
+public class DocumentCacheTest extends TestCase {
+
+    private DocumentCache cache;
+    private int loads;
+
+    public DocumentCacheTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return new TestSuite(DocumentCacheTest.class);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        cache = new DocumentCache(2);
+        loads = 0;
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        cache = null;
+    }
+
+    private Documents load(int id) {
+        loads++;
+        return new Documents(id, "file" + id + ".txt", "hash", "2024-01-01", "2024-01-01", new ArrayList<>());
+    }
+
+    /**
+     * Test that a second lookup is served from the cache
+     */
+    public void testGet_RepeatedLookup_LoadsOnce() {
+        // Act
+        Documents first = cache.get(1, this::load);
+        Documents second = cache.get(1, this::load);
+
+        // Assert
+        assertSame("Cached document should be returned", first, second);
+        assertEquals("Loader should run once", 1, loads);
+        assertEquals("One hit should be counted", 1, cache.getHitCount());
+        assertEquals("One miss should be counted", 1, cache.getMissCount());
+    }
+
+    /**
+     * Test that invalidation forces a reload
+     */
+    public void testInvalidate_CachedDocument_ReloadsOnNextLookup() {
+        // Arrange
+        cache.get(1, this::load);
+
+        // Act
+        cache.invalidate(1);
+        cache.get(1, this::load);
+
+        // Assert
+        assertEquals("Invalidated document should be loaded again", 2, loads);
+    }
+
+    /**
+     * Test that a load overlapping an invalidation is not cached
+     */
+    public void testGet_InvalidatedWhileLoading_DoesNotCacheStaleCopy() {
+        // Act
+        cache.get(1, id -> {
+            cache.invalidate(id);
+            return load(id);
+        });
+        cache.get(1, this::load);
+
+        // Assert
+        assertEquals("Stale load should not be cached", 2, loads);
+    }
+
+    /**
+     * Test that the least recently used document is evicted at capacity
+     */
+    public void testGet_OverCapacity_EvictsLeastRecentlyUsed() {
+        // Arrange
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+        cache.get(1, this::load);
+
+        // Act
+        cache.get(3, this::load);
+        cache.get(2, this::load);
+
+        // Assert
+        assertEquals("Cache should stay at capacity", 2, cache.size());
+        assertEquals("Document 2 should have been evicted and reloaded", 4, loads);
+        assertTrue("Evictions should be counted", cache.getEvictionCount() >= 1);
+    }
+}
@@ -0,0 +1,81 @@
+package business;
+
+import junit.framework.TestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.List;
+
+import bll.FuzzyTermIndex;
+import bll.InvertedIndex;
+import bll.SearchWord;
+import dto.SearchResult;
+
+/**
+ * Test Class: FuzzySearchTest
+ * Purpose: Test that fuzzy search ignores harakat and hamza spellings and tolerates small typos
+ */
+public class FuzzySearchTest extends TestCase {
+
+    private InvertedIndex index;
+    private FuzzyTermIndex terms;
+
+    public FuzzySearchTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return new TestSuite(FuzzySearchTest.class);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        index = new InvertedIndex();
+        index.setFileName(1, "first.txt");
+        index.setFileName(2, "second.txt");
+        index.addPage(1, 1, "ذهب أحمد إلى المدرسة");
+        index.addPage(2, 1, "قرأ احمد الكتاب في المكتبة");
+        terms = new FuzzyTermIndex();
+        index.forEachTerm(terms::add);
+    }
+
+    /**
+     * Test that hamza forms and harakat do not stop a match
+     */
+    public void testSearchFuzzy_AlefVariants_MatchesBothSpellings() {
+        // Act
+        List<SearchResult> results = SearchWord.searchFuzzy("إحْمد", index, terms);
+
+        // Assert
+        assertEquals("Both spellings of the name should match", 2, results.size());
+        assertEquals("First match is the hamza spelling", "أحمد", results.get(0).getWord());
+        assertEquals("Second match is the bare alef spelling", "احمد", results.get(1).getWord());
+    }
+
+    /**
+     * Test that a long word tolerates two edits but not three
+     */
+    public void testSearchFuzzy_MisspelledWord_MatchesWithinTwoEdits() {
+        // Act
+        List<SearchResult> typo = SearchWord.searchFuzzy("المدرسه", index, terms);
+        List<SearchResult> other = SearchWord.searchFuzzy("المطبخ", index, terms);
+
+        // Assert
+        assertEquals("One edit away should match", 1, typo.size());
+        assertEquals("Match should be on page 1 of file 1", "first.txt", typo.get(0).getFileName());
+        assertEquals("Match should give the word offset", 3, typo.get(0).getPosition());
+        assertEquals("Three edits away should not match", 0, other.size());
+    }
+
+    /**
+     * Test the bit-parallel edit distance against known distances
+     */
+    public void testEditDistance_KnownPairs_ReturnsLevenshteinDistance() {
+        // Assert
+        assertEquals("Identical words", 0, FuzzyTermIndex.editDistance("الكتاب", "الكتاب"));
+        assertEquals("One substitution", 1, FuzzyTermIndex.editDistance("المدرسة", "المدرسه"));
+        assertEquals("One deletion", 1, FuzzyTermIndex.editDistance("المكتبة", "المكتب"));
+        assertEquals("Empty pattern", 3, FuzzyTermIndex.editDistance("", "abc"));
+        assertEquals("Classic example", 3, FuzzyTermIndex.editDistance("kitten", "sitting"));
+    }
+}
@@ -0,0 +1,104 @@
+package business;
+
+import junit.framework.TestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.List;
+
+import bll.InvertedIndex;
+import bll.Postings;
+import bll.SearchWord;
+
+/**
+ * Test Class: InvertedIndexTest
+ * Purpose: Test that the search index finds normalized words and follows page updates and deletes
+ */
+public class InvertedIndexTest extends TestCase {
+
+    private InvertedIndex index;
+
+    public InvertedIndexTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return new TestSuite(InvertedIndexTest.class);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        index = new InvertedIndex();
+        index.setFileName(1, "first.txt");
+        index.setFileName(2, "second.txt");
+        index.addPage(1, 1, "ذهب الولدُ إلى المدرسة");
+        index.addPage(1, 2, "قرأ الولد الكتاب.");
+        index.addPage(2, 1, "الكتاب مفيد");
+    }
+
+    /**
+     * Test that a word is found with harakat and punctuation ignored
+     */
+    public void testSearchKeyword_VocalizedWord_FindsEveryFileOnce() {
+        // Act
+        List<String> results = SearchWord.searchKeyword("الكتاب", index);
+
+        // Assert
+        assertEquals("Both files contain the word", 2, results.size());
+        assertEquals("Result should show the word before the match", "first.txt - الولد الكتاب...", results.get(0));
+        assertEquals("Match at the start of a page has no prefix", "second.txt -  الكتاب...", results.get(1));
+    }
+
+    /**
+     * Test that spaces around a short word do not count towards its length
+     */
+    public void testSearchKeyword_PaddedShortWord_ThrowsException() {
+        try {
+            // Act
+            SearchWord.searchKeyword(" ab ", index);
+            fail("Search should reject words shorter than 3 letters");
+        } catch (IllegalArgumentException e) {
+            // Assert
+            assertTrue("Error should ask for 3 letters", e.getMessage().contains("3 letter"));
+        }
+    }
+
+    /**
+     * Test that postings list every page and position in order
+     */
+    public void testGetPostings_WordOnTwoPages_ReturnsAllOccurrences() {
+        // Act
+        Postings postings = index.getPostings("الولد");
+
+        // Assert
+        assertEquals("The word occurs twice", 2, postings.size());
+        assertEquals("First occurrence on page 1", 1, postings.pageNumber(0));
+        assertEquals("Second word of page 1", 1, postings.position(0));
+        assertEquals("Second occurrence on page 2", 2, postings.pageNumber(1));
+    }
+
+    /**
+     * Test that replacing a page drops the words it no longer contains
+     */
+    public void testAddPage_ReplacedContent_OldWordsRemoved() {
+        // Act
+        index.addPage(1, 2, "كتب الطالب الدرس");
+
+        // Assert
+        assertEquals("Only page 1 still has the word", 1, index.getPostings("الولد").size());
+        assertEquals("Only file 2 still has the book", 1, index.getPostings("الكتاب").size());
+        assertEquals("New words are searchable", 1, index.getPostings("الطالب").size());
+    }
+
+    /**
+     * Test that removing a file removes all of its postings
+     */
+    public void testRemoveFile_IndexedFile_NoLongerFound() {
+        // Act
+        index.removeFile(1);
+
+        // Assert
+        assertEquals("File 1 words should be gone", 0, index.getPostings("الولد").size());
+        assertEquals("File 2 should still be found", 1, SearchWord.searchKeyword("الكتاب", index).size());
+    }
+}
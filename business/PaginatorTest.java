@@ -0,0 +1,112 @@
+package business;
+
+import junit.framework.TestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import dal.LineNormalizingReader;
+import dal.Paginator;
+import dto.Pages;
+
+/**
+ * Test Class: PaginatorTest
+ * Purpose: Test that pages are bounded, break between words and rebuild the original text
+ */
+public class PaginatorTest extends TestCase {
+
+    public PaginatorTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return new TestSuite(PaginatorTest.class);
+    }
+
+    private List<Pages> paginate(String text, int pageSize) {
+        List<Pages> pages = new ArrayList<>();
+        new Paginator(new StringReader(text), pageSize).forEachRemaining(pages::add);
+        return pages;
+    }
+
+    /**
+     * Test that pages are numbered from 1 and concatenate to the input
+     */
+    public void testPaginate_LongText_ConcatenatesToInput() {
+        // Arrange
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append(i % 7 == 0 ? "الكتاب مفيد. " : "ذهب الولد إلى المدرسة ");
+        }
+
+        // Act
+        List<Pages> pages = paginate(text.toString(), 100);
+
+        // Assert
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < pages.size(); i++) {
+            assertEquals("Pages should be numbered in order", i + 1, pages.get(i).getPageNumber());
+            assertTrue("No page should exceed the page size", pages.get(i).getPageContent().length() <= 100);
+            joined.append(pages.get(i).getPageContent());
+        }
+        assertEquals("Pages should rebuild the original text", text.toString(), joined.toString());
+    }
+
+    /**
+     * Test that every page but the last ends between words
+     */
+    public void testPaginate_WordsLongerThanGap_NotCut() {
+        // Arrange
+        String text = "كتاب قلم مدرسة ولد بيت شجرة سماء أرض نهر جبل";
+
+        // Act
+        List<Pages> pages = paginate(text, 12);
+
+        // Assert
+        for (int i = 0; i < pages.size() - 1; i++) {
+            assertTrue("Page should end with whitespace", pages.get(i).getPageContent().endsWith(" "));
+        }
+    }
+
+    /**
+     * Test that a page prefers to end after a sentence
+     */
+    public void testPaginate_SentenceInSecondHalf_BreaksAfterSentence() {
+        // Act
+        List<Pages> pages = paginate("ذهب الولد. إلى المدرسة", 16);
+
+        // Assert
+        assertEquals("First page should end after the sentence", "ذهب الولد. ", pages.get(0).getPageContent());
+    }
+
+    /**
+     * Test that empty input still yields one empty page
+     */
+    public void testPaginate_EmptyInput_OneEmptyPage() {
+        // Act
+        List<Pages> pages = paginate("", 100);
+
+        // Assert
+        assertEquals("Empty input should give one page", 1, pages.size());
+        assertEquals("The page should be empty", "", pages.get(0).getPageContent());
+    }
+
+    /**
+     * Test that CRLF and CR line endings are read as LF with a final line break
+     */
+    public void testPaginate_CrlfInput_NormalizedToLf() {
+        // Arrange
+        List<Pages> pages = new ArrayList<>();
+
+        // Act
+        new Paginator(new LineNormalizingReader(new StringReader("ذهب الولد\r\nإلى\rالمدرسة")), 100)
+                .forEachRemaining(pages::add);
+
+        // Assert
+        assertEquals("Line endings should match a readLine() import", "ذهب الولد\nإلى\nالمدرسة\n",
+                pages.get(0).getPageContent());
+    }
+}
@@ -0,0 +1,106 @@
+package business;
+
+import junit.framework.TestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.List;
+
+import bll.InvertedIndex;
+import bll.SearchWord;
+import dto.SearchResult;
+
+/**
+ * Test Class: PhraseSearchTest
+ * Purpose: Test that phrase and NEAR/k queries return every matching page and word offset
+ */
+public class PhraseSearchTest extends TestCase {
+
+    private InvertedIndex index;
+
+    public PhraseSearchTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return new TestSuite(PhraseSearchTest.class);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        index = new InvertedIndex();
+        index.setFileName(1, "first.txt");
+        index.setFileName(2, "second.txt");
+        index.addPage(1, 1, "قرأ الولد الكتاب ثم قرأ الولد الكتاب الجديد");
+        index.addPage(1, 2, "الكتاب الولد");
+        index.addPage(2, 1, "ذهب الولدُ إلى المدرسة ومعه الكتاب");
+    }
+
+    /**
+     * Test that a phrase is found at every offset, not only once per file
+     */
+    public void testSearchPhrase_RepeatedPhrase_ReturnsEveryOffset() {
+        // Act
+        List<SearchResult> results = SearchWord.searchPhrase("\"الولد الكتاب\"", index);
+
+        // Assert
+        assertEquals("The phrase occurs twice on page 1 only", 2, results.size());
+        assertEquals("First match starts at the second word", 1, results.get(0).getPosition());
+        assertEquals("Second match starts at the sixth word", 5, results.get(1).getPosition());
+        assertEquals("Match should show the phrase", "الولد الكتاب", results.get(0).getWord());
+    }
+
+    /**
+     * Test that words in the wrong order are not a phrase match
+     */
+    public void testSearchPhrase_WordsReversed_NoMatch() {
+        // Act
+        List<SearchResult> results = SearchWord.searchPhrase("الكتاب الولد الكتاب", index);
+
+        // Assert
+        assertEquals("No page has this sequence", 0, results.size());
+    }
+
+    /**
+     * Test that NEAR/k finds words up to k apart in either order
+     */
+    public void testSearchPhrase_NearQuery_MatchesWithinDistance() {
+        // Act
+        List<SearchResult> near = SearchWord.searchPhrase("الولد NEAR/4 الكتاب", index);
+        List<SearchResult> adjacent = SearchWord.searchPhrase("الولد near/1 الكتاب", index);
+
+        // Assert
+        assertEquals("Every page with both words is within 4", 4, near.size());
+        assertEquals("File 2 matches from the first word to the last", "second.txt", near.get(3).getFileName());
+        assertEquals("Only adjacent pairs are within 1", 3, adjacent.size());
+        assertEquals("Page 2 has the words reversed", 2, adjacent.get(2).getPageNumber());
+    }
+
+    /**
+     * Test that a phrase running from the end of one page onto the next is found
+     */
+    public void testSearchPhrase_PhraseCrossesPageBoundary_MatchesFromFirstPage() {
+        // Act
+        List<SearchResult> results = SearchWord.searchPhrase("الجديد الكتاب الولد", index);
+
+        // Assert
+        assertEquals("The phrase runs from page 1 onto page 2", 1, results.size());
+        assertEquals("Match is reported on the page it starts on", 1, results.get(0).getPageNumber());
+        assertEquals("Match starts at the last word of page 1", 7, results.get(0).getPosition());
+        assertEquals("Match should show the words from both pages", "الجديد الكتاب الولد", results.get(0).getWord());
+    }
+
+    /**
+     * Test that NEAR/k pairs words on neighbouring pages
+     */
+    public void testSearchPhrase_NearAcrossPageBoundary_MatchesBothPages() {
+        // Act
+        List<SearchResult> results = SearchWord.searchPhrase("الولد NEAR/2 الجديد", index);
+
+        // Assert
+        assertEquals("One pair on page 1 and one spanning pages 1 and 2", 2, results.size());
+        assertEquals("Spanning pair starts on page 1", 1, results.get(1).getPageNumber());
+        assertEquals("Spanning pair starts at the last word of page 1", 7, results.get(1).getPosition());
+        assertEquals("Match should show the words between the pair", "الجديد الكتاب الولد", results.get(1).getWord());
+    }
+}
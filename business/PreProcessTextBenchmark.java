@@ -0,0 +1,74 @@
+package business;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import dal.PreProcessText;
+
+/**
+ * Benchmark Class: PreProcessTextBenchmark
+ * Purpose: Compare single-pass preprocessing against the previous three-pass
+ * version on multi-megabyte documents. Run with the default (no folding)
+ * configuration so both versions must produce identical output.
+ */
+public class PreProcessTextBenchmark {
+
+    private static final Set<Character> DIACRITICS = new HashSet<>(
+            Arrays.asList('َ', 'ً', 'ُ', 'ٌ', 'ِ', 'ٍ', 'ْ', 'ّ'));
+
+    private static String legacyPreprocess(String text) {
+        StringBuilder result = new StringBuilder();
+        for (char ch : text.toCharArray()) {
+            if (!DIACRITICS.contains(ch)) {
+                result.append(ch);
+            }
+        }
+        return result.toString().replaceAll("[^\\p{IsArabic}\\s]", "").toLowerCase();
+    }
+
+    private static String buildDocument(int chars) {
+        String[] words = { "بِسْمِ", "ٱللَّهِ", "ٱلرَّحْمَـٰنِ", "ٱلرَّحِيمِ", "مدرسة،", "الكتاب.", "text", "123", "إِلَى", "(فِى)" };
+        Random random = new Random(42);
+        StringBuilder document = new StringBuilder(chars + 32);
+        while (document.length() < chars) {
+            document.append(words[random.nextInt(words.length)]).append(random.nextInt(12) == 0 ? '\n' : ' ');
+        }
+        return document.toString();
+    }
+
+    public static void main(String[] args) {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String document = buildDocument(megabytes * 1024 * 1024);
+
+        if (!legacyPreprocess(document).equals(PreProcessText.preprocessText(document))) {
+            throw new AssertionError("Single-pass output differs from the legacy output");
+        }
+
+        // Warm up both paths before timing
+        for (int i = 0; i < 3; i++) {
+            legacyPreprocess(document);
+            PreProcessText.preprocessText(document);
+        }
+
+        long legacyNanos = 0;
+        long singlePassNanos = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            legacyPreprocess(document);
+            legacyNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            PreProcessText.preprocessText(document);
+            singlePassNanos += System.nanoTime() - start;
+        }
+
+        double chars = (double) document.length() * rounds;
+        System.out.printf("Document: %d chars, %d rounds%n", document.length(), rounds);
+        System.out.printf("Three-pass:  %.1f MB/s%n", chars / (legacyNanos / 1e9) / (1024 * 1024));
+        System.out.printf("Single-pass: %.1f MB/s%n", chars / (singlePassNanos / 1e9) / (1024 * 1024));
+        System.out.printf("Speed-up:    %.1fx%n", (double) legacyNanos / singlePassNanos);
+    }
+}
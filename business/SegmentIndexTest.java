@@ -0,0 +1,190 @@
+package business;
+
+import junit.framework.TestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import bll.SegmentIndex;
+import dal.HashCalculator;
+import bll.SearchWord;
+
+/**
+ * Test Class: SegmentIndexTest
+ * Purpose: Test that the on-disk search index survives a reopen and keeps updates and deletes
+ */
+public class SegmentIndexTest extends TestCase {
+
+    private File directory;
+    private SegmentIndex index;
+
+    public SegmentIndexTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return new TestSuite(SegmentIndexTest.class);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        directory = Files.createTempDirectory("segment-index-test").toFile();
+        index = open();
+        index.setFileName(1, "first.txt");
+        index.setFileName(2, "second.txt");
+        index.addPage(1, 1, "ذهب الولدُ إلى المدرسة");
+        index.addPage(1, 2, "قرأ الولد الكتاب.");
+        index.addPage(2, 1, "الكتاب مفيد");
+        index.flush();
+    }
+
+    protected void tearDown() throws Exception {
+        index.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+        super.tearDown();
+    }
+
+    private SegmentIndex open() throws Exception {
+        return new SegmentIndex(directory, 1000, 10, 4, 0);
+    }
+
+    private SegmentIndex reopen() throws Exception {
+        index.close();
+        index = open();
+        return index;
+    }
+
+    /**
+     * Test that a reopened index answers searches without being rebuilt
+     */
+    public void testReopen_FlushedIndex_SearchesFromDisk() throws Exception {
+        // Act
+        SegmentIndex reopened = reopen();
+
+        // Assert
+        assertEquals("Both files should be known", 2, reopened.getFileIds().size());
+        assertEquals("Result should show the word before the match", "first.txt - الولد الكتاب...",
+                SearchWord.searchKeyword("الكتاب", reopened).get(0));
+        assertEquals("The word occurs twice", 2, reopened.getPostings("الولد").size());
+    }
+
+    /**
+     * Test that a page updated after a flush hides its old words on disk
+     */
+    public void testAddPage_UpdateAfterFlush_OldWordsHidden() throws Exception {
+        // Act
+        index.addPage(1, 2, "كتب الطالب الدرس");
+        index.flush();
+        SegmentIndex reopened = reopen();
+
+        // Assert
+        assertEquals("Two segments should be on disk", 2, reopened.getSegmentCount());
+        assertEquals("Only page 1 still has the word", 1, reopened.getPostings("الولد").size());
+        assertEquals("Only file 2 still has the book", 1, reopened.getPostings("الكتاب").size());
+        assertEquals("New words are searchable", "الطالب", reopened.getTerm(1, 2, 1));
+    }
+
+    /**
+     * Test that updating one page writes only that page and keeps the rest of the file
+     */
+    public void testAddPage_OnePageUpdated_OnlyThatPageRewritten() throws Exception {
+        // Act
+        index.addPage(1, 1, "ذهب الطالب إلى المدرسة");
+        index.flush();
+        SegmentIndex reopened = reopen();
+
+        // Assert
+        String segments = reopened.toString();
+        assertTrue("The new segment should hold the updated page only",
+                segments.substring(segments.lastIndexOf("segment-")).contains("pages=1,"));
+        assertEquals("The unchanged page 2 is still found", 2, reopened.getPostings("الكتاب").size());
+        assertEquals("Page 1 shows its new words", "الطالب", reopened.getTerm(1, 1, 1));
+        assertEquals("Both pages of file 1 are still listed", 2, reopened.getPageHashes(1).size());
+    }
+
+    /**
+     * Test that saving a page again with the same text writes no new segment
+     */
+    public void testAddPage_SameContentAgain_NoNewSegment() throws Exception {
+        // Arrange
+        int segmentCount = index.getSegmentCount();
+
+        // Act
+        boolean changed = false;
+        for (int save = 0; save < 5; save++) {
+            changed |= index.addPage(1, 2, "قرأ الولد الكتاب.");
+            index.flush();
+        }
+
+        // Assert
+        assertFalse("An unchanged page should not be re-indexed", changed);
+        assertEquals("No segment should be written for unchanged saves", segmentCount, index.getSegmentCount());
+    }
+
+    /**
+     * Test that a removed page stays removed after a reopen while the rest of the file stays
+     */
+    public void testRemovePage_Reopened_OnlyThatPageGone() throws Exception {
+        // Act
+        index.removePage(1, 2);
+        index.flush();
+        SegmentIndex reopened = reopen();
+
+        // Assert
+        assertNull("Page 2 words should be gone", reopened.getTerm(1, 2, 0));
+        assertEquals("Only file 2 still has the book", 1, reopened.getPostings("الكتاب").size());
+        assertEquals("Page 1 is still found", 1, reopened.getPostings("المدرسة").size());
+        assertFalse("Page 2 should not be listed", reopened.getPageHashes(1).containsKey(2));
+    }
+
+    /**
+     * Test that a deleted file stays deleted after a reopen
+     */
+    public void testRemoveFile_Reopened_FileStillGone() throws Exception {
+        // Act
+        index.removeFile(1);
+        index.flush();
+        SegmentIndex reopened = reopen();
+
+        // Assert
+        assertEquals("File 1 words should be gone", 0, reopened.getPostings("الولد").size());
+        assertFalse("File 1 should not be listed", reopened.getFileIds().contains(1));
+        assertEquals("File 2 should still be found", 1, SearchWord.searchKeyword("الكتاب", reopened).size());
+    }
+
+    /**
+     * Test that pages keep the hash of the content they were indexed from
+     */
+    public void testGetPageHashes_Reopened_MatchesContentHash() throws Exception {
+        // Act
+        SegmentIndex reopened = reopen();
+
+        // Assert
+        assertEquals("Both pages of file 1 should be listed", 2, reopened.getPageHashes(1).size());
+        assertEquals("Hash should match the stored page hash", HashCalculator.calculateHash("قرأ الولد الكتاب."),
+                reopened.getPageHashes(1).get(2));
+    }
+
+    /**
+     * Test that a directory another index has open cannot be opened again
+     */
+    public void testOpen_DirectoryInUse_Fails() throws Exception {
+        try {
+            // Act
+            open();
+            fail("A second index on the same directory should not open");
+        } catch (IOException e) {
+            // Assert
+            assertTrue("Error should say the directory is in use", e.getMessage().contains("already in use"));
+        }
+    }
+}
@@ -18,6 +18,10 @@ CREATE TABLE `pages` (
 	`fileId` INT(11) NOT NULL,
 	`pageNumber` INT(11) NOT NULL,
 	`pageContent` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
+	`contentHash` CHAR(32) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`contentLength` INT(11) NULL DEFAULT NULL,
+	`vocabularyHash` CHAR(32) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`tokenHash` CHAR(32) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
 	PRIMARY KEY (`pageId`) USING BTREE,
 	UNIQUE INDEX `file_id` (`fileId`, `pageNumber`) USING BTREE,
 	CONSTRAINT `pages_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
@@ -42,11 +46,12 @@ AUTO_INCREMENT=32
 CREATE TABLE `lemmatization` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`lemma` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`word` VARCHAR(255) NOT NULL COLLATE 'utf8mb4_general_ci',
+	`lemma` VARCHAR(255) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
 	PRIMARY KEY (`id`) USING BTREE,
 	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
 	INDEX `lemmatization_ibfk_1` (`pageId`) USING BTREE,
+	INDEX `lemmatization_lemma` (`lemma`, `pageId`, `word`) USING BTREE,
 	CONSTRAINT `lemmatization_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
 )
 COLLATE='utf8mb4_general_ci'
@@ -72,11 +77,12 @@ AUTO_INCREMENT=613
 CREATE TABLE `rootextraction` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`root` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`word` VARCHAR(255) NOT NULL COLLATE 'utf8mb4_general_ci',
+	`root` VARCHAR(255) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
 	PRIMARY KEY (`id`) USING BTREE,
 	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
 	INDEX `rootExtraction_ibfk_1` (`pageId`) USING BTREE,
+	INDEX `rootextraction_root` (`root`, `pageId`, `word`) USING BTREE,
 	CONSTRAINT `rootExtraction_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
 )
 COLLATE='utf8mb4_general_ci'
@@ -87,11 +93,12 @@ AUTO_INCREMENT=14506
 CREATE TABLE `stemmation` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`stem` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`word` VARCHAR(255) NOT NULL COLLATE 'utf8mb4_general_ci',
+	`stem` VARCHAR(255) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
 	PRIMARY KEY (`id`) USING BTREE,
 	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
 	INDEX `stemmation_ibfk_1` (`pageId`) USING BTREE,
+	INDEX `stemmation_stem` (`stem`, `pageId`, `word`) USING BTREE,
 	CONSTRAINT `stemmation_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
 )
 COLLATE='utf8mb4_general_ci'
@@ -154,3 +161,51 @@ COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
 AUTO_INCREMENT=14517
 ;
+
+CREATE TABLE `documentfrequency` (
+	`term` VARCHAR(255) NOT NULL COLLATE 'utf8mb4_bin',
+	`df` INT(11) NOT NULL DEFAULT '0',
+	PRIMARY KEY (`term`) USING BTREE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+CREATE TABLE `fileterms` (
+	`fileId` INT(11) NOT NULL,
+	`term` VARCHAR(255) NOT NULL COLLATE 'utf8mb4_bin',
+	PRIMARY KEY (`fileId`, `term`) USING BTREE,
+	CONSTRAINT `fileterms_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+
+-- Upgrade for databases created before pages carried analysis hashes
+ALTER TABLE `pages`
+	ADD COLUMN IF NOT EXISTS `contentHash` CHAR(32) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci' AFTER `pageContent`,
+	ADD COLUMN IF NOT EXISTS `vocabularyHash` CHAR(32) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci' AFTER `contentHash`,
+	ADD COLUMN IF NOT EXISTS `tokenHash` CHAR(32) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci' AFTER `vocabularyHash`;
+
+-- Upgrade for databases created before pages carried their length, which
+-- the file list sums instead of reading pageContent
+ALTER TABLE `pages`
+	ADD COLUMN IF NOT EXISTS `contentLength` INT(11) NULL DEFAULT NULL AFTER `contentHash`;
+UPDATE `pages` SET `contentLength` = CHAR_LENGTH(`pageContent`) WHERE `contentLength` IS NULL;
+
+-- Upgrade for databases created before morphology search: index seeks need
+-- VARCHAR columns. Words longer than 255 characters are no longer stored.
+DELETE FROM `lemmatization` WHERE CHAR_LENGTH(`word`) > 255 OR CHAR_LENGTH(`lemma`) > 255;
+ALTER TABLE `lemmatization`
+	MODIFY COLUMN `word` VARCHAR(255) NOT NULL COLLATE 'utf8mb4_general_ci',
+	MODIFY COLUMN `lemma` VARCHAR(255) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	ADD INDEX IF NOT EXISTS `lemmatization_lemma` (`lemma`, `pageId`, `word`) USING BTREE;
+DELETE FROM `rootextraction` WHERE CHAR_LENGTH(`word`) > 255 OR CHAR_LENGTH(`root`) > 255;
+ALTER TABLE `rootextraction`
+	MODIFY COLUMN `word` VARCHAR(255) NOT NULL COLLATE 'utf8mb4_general_ci',
+	MODIFY COLUMN `root` VARCHAR(255) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	ADD INDEX IF NOT EXISTS `rootextraction_root` (`root`, `pageId`, `word`) USING BTREE;
+DELETE FROM `stemmation` WHERE CHAR_LENGTH(`word`) > 255 OR CHAR_LENGTH(`stem`) > 255;
+ALTER TABLE `stemmation`
+	MODIFY COLUMN `word` VARCHAR(255) NOT NULL COLLATE 'utf8mb4_general_ci',
+	MODIFY COLUMN `stem` VARCHAR(255) NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	ADD INDEX IF NOT EXISTS `stemmation_stem` (`stem`, `pageId`, `word`) USING BTREE;
@@ -0,0 +1,98 @@
+package bll;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.IntFunction;
+import java.util.concurrent.atomic.LongAdder;
+
+import dto.Documents;
+
+/**
+ * Size-bounded LRU cache of opened documents keyed by file id. Writers call
+ * invalidate after changing a file; a load that overlaps an invalidation is
+ * returned to its caller but not cached, so a stale copy is never kept.
+ */
+public class DocumentCache {
+	private final int maxSize;
+	private final LinkedHashMap<Integer, Documents> documents = new LinkedHashMap<>(16, 0.75f, true);
+	private long generation = 0;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public DocumentCache(int maxSize) {
+		this.maxSize = Math.max(1, maxSize);
+	}
+
+	public Documents get(int id, IntFunction<Documents> loader) {
+		long loadGeneration;
+		synchronized (this) {
+			Documents document = documents.get(id);
+			if (document != null) {
+				hits.increment();
+				return document;
+			}
+			misses.increment();
+			loadGeneration = generation;
+		}
+
+		Documents document = loader.apply(id);
+		if (document != null) {
+			synchronized (this) {
+				if (loadGeneration == generation) {
+					put(id, document);
+				}
+			}
+		}
+		return document;
+	}
+
+	private void put(int id, Documents document) {
+		documents.put(id, document);
+		Iterator<Integer> eldest = documents.keySet().iterator();
+		while (documents.size() > maxSize) {
+			eldest.next();
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	public synchronized void invalidate(int id) {
+		generation++;
+		documents.remove(id);
+	}
+
+	public synchronized void clear() {
+		generation++;
+		documents.clear();
+	}
+
+	public synchronized int size() {
+		return documents.size();
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0.0 : (double) hitCount / total;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("DocumentCache[size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.2f%%]", size(),
+				getHitCount(), getMissCount(), getEvictionCount(), getHitRate() * 100);
+	}
+}
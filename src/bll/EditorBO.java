@@ -3,6 +3,7 @@ package bll;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -10,24 +11,47 @@ import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import dal.Configuration;
 import dal.IFacadeDAO;
+import dal.LineNormalizingReader;
 import dto.Documents;
+import dto.FileSummary;
+import dto.PageUpdate;
 import dto.Pages;
+import dto.RebalanceResult;
+import dto.SearchMode;
+import dto.SearchResult;
 import pl.EditorPO;
 
 public class EditorBO implements IEditorBO {
 	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
 
 	private IFacadeDAO db;
+	private final DocumentCache documentCache = new DocumentCache(Configuration.getInt("document.cache.size", 32));
+	private final SearchIndexer searchIndexer;
 
 	public EditorBO(IFacadeDAO db) {
+		this(db, new SearchIndexer(db));
+		searchIndexer.start();
+	}
+
+	/**
+	 * Uses the given indexer as it is; the caller starts it if searches are
+	 * needed.
+	 */
+	public EditorBO(IFacadeDAO db, SearchIndexer searchIndexer) {
 		this.db = db;
+		this.searchIndexer = searchIndexer;
 	}
 
 	@Override
 	public boolean createFile(String nameOfFile, String content) {
 		try {
-			return db.createFileInDB(nameOfFile, content);
+			boolean created = db.createFileInDB(nameOfFile, content);
+			if (created) {
+				searchIndexer.filesCreated();
+			}
+			return created;
 		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
@@ -38,42 +62,75 @@ public class EditorBO implements IEditorBO {
 	@Override
 	public boolean updateFile(int id, String fileName, int pageNumber, String content) {
 		try {
-			return db.updateFileInDB(id, fileName, pageNumber, content);
+			PageUpdate update = db.updateFileInDB(id, fileName, pageNumber, content);
+			if (update == null) {
+				return false;
+			}
+			// An autosave of unchanged text keeps the cached document and the index as they are
+			if (update != PageUpdate.UNCHANGED) {
+				documentCache.invalidate(id);
+				searchIndexer.pageUpdated(id, fileName, pageNumber, content);
+			}
+			return true;
 		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
+			documentCache.invalidate(id);
 			return false;
 		}
 	}
 
+	@Override
+	public int rebalancePage(int fileId, int pageNumber) {
+		try {
+			RebalanceResult result = db.rebalancePageInDB(fileId, pageNumber);
+			if (result == null) {
+				return -1;
+			}
+			if (result.isChanged()) {
+				searchIndexer.pagesMoved(fileId, result.getFirstChangedPage(), result.getLastChangedPage(),
+						result.getPageCountChange());
+			}
+			return result.getPageNumber();
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return -1;
+		} finally {
+			documentCache.invalidate(fileId);
+		}
+	}
+
 	@Override
 	public boolean deleteFile(int id) {
 		try {
-			return db.deleteFileInDB(id);
+			boolean deleted = db.deleteFileInDB(id);
+			if (deleted) {
+				searchIndexer.fileChanged(id);
+			}
+			return deleted;
 		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
 			return false;
+		} finally {
+			documentCache.invalidate(id);
 		}
 	}
 
 	@Override
 	public boolean importTextFiles(File file, String fileName) {
-		StringBuilder fileContent = new StringBuilder();
 		String fileExtension = getFileExtension(fileName);
-		BufferedReader reader;
-		try {
-			reader = new BufferedReader(new FileReader(file));
-			String line;
-
-			while ((line = reader.readLine()) != null) {
-				fileContent.append(line).append("\n");
-			}
-			reader.close();
-
-			if (fileExtension.equalsIgnoreCase("txt") || fileExtension.equalsIgnoreCase("md5")) {
-				return db.createFileInDB(fileName, fileContent.toString());
+		if (!fileExtension.equalsIgnoreCase("txt") && !fileExtension.equalsIgnoreCase("md5")) {
+			return false;
+		}
+		// Paginated as it is read, so large files are never held as one String
+		try (Reader reader = new LineNormalizingReader(new BufferedReader(new FileReader(file)))) {
+			boolean created = db.createFileInDB(fileName, reader);
+			if (created) {
+				searchIndexer.filesCreated();
 			}
+			return created;
 		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
@@ -83,13 +140,11 @@ public class EditorBO implements IEditorBO {
 
 	@Override
 	public Documents getFile(int id) {
-		List<Documents> docs = getAllFiles();
-		for (int i = 0; i < docs.size(); i++) {
-			if (id == docs.get(i).getId()) {
-				return docs.get(i);
-			}
-		}
-		return null;
+		return documentCache.get(id, fileId -> {
+			Documents document = db.getFileById(fileId);
+			LOGGER.info(documentCache);
+			return document;
+		});
 	}
 
 	@Override
@@ -103,6 +158,26 @@ public class EditorBO implements IEditorBO {
 		return db.getFilesFromDB();
 	}
 
+	@Override
+	public List<FileSummary> listFileSummaries() {
+		return db.listFileSummaries();
+	}
+
+	@Override
+	public Map<Integer, String> getLastPageContents() {
+		return db.getLastPageContents();
+	}
+
+	@Override
+	public List<Pages> getPages(int fileId, int firstPage, int lastPage) {
+		return db.getPagesFromDB(fileId, firstPage, lastPage);
+	}
+
+	@Override
+	public int getPageCount(int fileId) {
+		return db.getPageCountFromDB(fileId);
+	}
+
 	@Override
 	public String transliterate(int pageId, String arabicText) {
 		return db.transliterateInDB(pageId, arabicText);
@@ -111,7 +186,29 @@ public class EditorBO implements IEditorBO {
 	@Override
 	public List<String> searchKeyword(String keyword) {
 
-		return SearchWord.searchKeyword(keyword, getAllFiles());
+		return SearchWord.searchKeyword(keyword, searchIndexer.awaitIndex());
+	}
+
+	@Override
+	public List<SearchResult> searchMorphology(String word, SearchMode mode) {
+		if (word == null || word.trim().length() < 3) {
+			throw new IllegalArgumentException("Could not Search, Please Enter at least 3 letter to search");
+		}
+		if (mode != SearchMode.ROOT && mode != SearchMode.LEMMA && mode != SearchMode.STEM) {
+			throw new IllegalArgumentException("Not a morphology search mode: " + mode);
+		}
+		return db.searchByMorphology(word.trim(), mode);
+	}
+
+	@Override
+	public List<SearchResult> searchPhrase(String query) {
+		return SearchWord.searchPhrase(query, searchIndexer.awaitIndex());
+	}
+
+	@Override
+	public List<SearchResult> searchFuzzy(String word) {
+		SearchIndex index = searchIndexer.awaitIndex();
+		return SearchWord.searchFuzzy(word, index, searchIndexer.awaitFuzzyTerms());
 	}
 
 	@Override
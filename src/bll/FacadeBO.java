@@ -5,6 +5,10 @@ import java.util.List;
 import java.util.Map;
 
 import dto.Documents;
+import dto.FileSummary;
+import dto.Pages;
+import dto.SearchMode;
+import dto.SearchResult;
 
 public class FacadeBO implements IFacadeBO {
 
@@ -26,6 +30,11 @@ public class FacadeBO implements IFacadeBO {
 		return bo.updateFile(id, fileName, pageNumber, content);
 	}
 
+	@Override
+	public int rebalancePage(int fileId, int pageNumber) {
+		return bo.rebalancePage(fileId, pageNumber);
+	}
+
 	@Override
 	public boolean deleteFile(int id) {
 		// TODO Auto-generated method stub
@@ -50,6 +59,26 @@ public class FacadeBO implements IFacadeBO {
 		return bo.getAllFiles();
 	}
 
+	@Override
+	public List<FileSummary> listFileSummaries() {
+		return bo.listFileSummaries();
+	}
+
+	@Override
+	public Map<Integer, String> getLastPageContents() {
+		return bo.getLastPageContents();
+	}
+
+	@Override
+	public List<Pages> getPages(int fileId, int firstPage, int lastPage) {
+		return bo.getPages(fileId, firstPage, lastPage);
+	}
+
+	@Override
+	public int getPageCount(int fileId) {
+		return bo.getPageCount(fileId);
+	}
+
 	@Override
 	public String getFileExtension(String fileName) {
 		// TODO Auto-generated method stub
@@ -66,6 +95,21 @@ public class FacadeBO implements IFacadeBO {
 		return bo.searchKeyword(keyword);
 	}
 
+	@Override
+	public List<SearchResult> searchMorphology(String word, SearchMode mode) {
+		return bo.searchMorphology(word, mode);
+	}
+
+	@Override
+	public List<SearchResult> searchPhrase(String query) {
+		return bo.searchPhrase(query);
+	}
+
+	@Override
+	public List<SearchResult> searchFuzzy(String word) {
+		return bo.searchFuzzy(word);
+	}
+
 	@Override
 	public Map<String, String> lemmatizeWords(String text) {
 		// TODO Auto-generated method stub
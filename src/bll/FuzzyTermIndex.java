@@ -0,0 +1,245 @@
+package bll;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Finds the search index terms within a small edit distance of a word,
+ * ignoring hamza, alef and alef maqsura spelling variants.
+ *
+ * Terms are grouped by their TermNormalizer.fold form, and each form is
+ * listed under the character bigrams of "^form$". One edit changes at most
+ * two bigrams, so a form within distance d of the query shares at least
+ * bigrams(query) - 2d of them; only forms passing that count, and within d
+ * in length, have their distance computed, with Myers' bit-parallel
+ * algorithm. Terms are only ever added: a term that left the index simply
+ * has no postings.
+ */
+public class FuzzyTermIndex {
+	private static final char START = '\u0002';
+	private static final char END = '\u0003';
+
+	private final Map<String, Integer> formIds = new HashMap<>();
+	private final List<String> forms = new ArrayList<>();
+	private final List<List<String>> variants = new ArrayList<>();
+	private final Map<Integer, int[]> bigrams = new HashMap<>();
+	private final Map<Integer, Integer> bigramSizes = new HashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Adds a normalized index term; adding a known term does nothing.
+	 */
+	public void add(String term) {
+		if (term.isEmpty()) {
+			return;
+		}
+		String form = TermNormalizer.fold(term);
+		lock.writeLock().lock();
+		try {
+			Integer id = formIds.get(form);
+			if (id != null) {
+				List<String> terms = variants.get(id);
+				if (!terms.contains(term)) {
+					terms.add(term);
+				}
+				return;
+			}
+			id = forms.size();
+			formIds.put(form, id);
+			forms.add(form);
+			List<String> terms = new ArrayList<>(1);
+			terms.add(term);
+			variants.add(terms);
+			for (int bigram : bigramsOf(form)) {
+				int size = bigramSizes.getOrDefault(bigram, 0);
+				int[] ids = bigrams.get(bigram);
+				if (ids == null || ids.length == size) {
+					ids = ids == null ? new int[4] : Arrays.copyOf(ids, size * 2);
+					bigrams.put(bigram, ids);
+				}
+				ids[size] = id;
+				bigramSizes.put(bigram, size + 1);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void addAll(List<String> terms) {
+		for (String term : terms) {
+			add(term);
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return forms.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The edit distance a word of this length may be off by: one for words of
+	 * up to five letters, where two edits change most of the word, else two.
+	 */
+	public static int maxDistance(int length) {
+		return length <= 5 ? 1 : 2;
+	}
+
+	/**
+	 * Every indexed term whose folded form is within maxDistance(length) of
+	 * the folded form of a normalized query term.
+	 */
+	public List<String> find(String term) {
+		String query = TermNormalizer.fold(term);
+		int distance = maxDistance(query.length());
+		List<String> matches = new ArrayList<>();
+		BitParallelPattern pattern = query.length() <= 64 ? new BitParallelPattern(query) : null;
+
+		lock.readLock().lock();
+		try {
+			int[] queryBigrams = bigramsOf(query);
+			int threshold = queryBigrams.length - 2 * distance;
+			int[] shared = new int[forms.size()];
+			if (threshold > 0) {
+				for (int bigram : queryBigrams) {
+					int[] ids = bigrams.get(bigram);
+					int size = bigramSizes.getOrDefault(bigram, 0);
+					for (int i = 0; i < size; i++) {
+						shared[ids[i]]++;
+					}
+				}
+			}
+			for (int id = 0; id < shared.length; id++) {
+				if (shared[id] < threshold) {
+					continue;
+				}
+				String form = forms.get(id);
+				if (Math.abs(form.length() - query.length()) > distance) {
+					continue;
+				}
+				int actual = pattern != null ? pattern.distance(form) : editDistance(query, form);
+				if (actual <= distance) {
+					matches.addAll(variants.get(id));
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return matches;
+	}
+
+	/**
+	 * Levenshtein distance, bit-parallel when the first string has at most
+	 * 64 characters.
+	 */
+	public static int editDistance(String a, String b) {
+		if (a.length() <= 64) {
+			return new BitParallelPattern(a).distance(b);
+		}
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			for (int j = 1; j <= b.length(); j++) {
+				int substitute = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+				current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[b.length()];
+	}
+
+	// Distinct bigrams of the word with start and end markers
+	private static int[] bigramsOf(String form) {
+		int[] result = new int[form.length() + 1];
+		int count = 0;
+		char previous = START;
+		for (int i = 0; i <= form.length(); i++) {
+			char next = i < form.length() ? form.charAt(i) : END;
+			int bigram = (previous << 16) | next;
+			boolean seen = false;
+			for (int j = 0; j < count && !seen; j++) {
+				seen = result[j] == bigram;
+			}
+			if (!seen) {
+				result[count++] = bigram;
+			}
+			previous = next;
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Myers' bit-vector edit distance for a pattern of up to 64 characters:
+	 * one column of the distance matrix is kept as bit masks of +1 and -1
+	 * vertical steps and advanced a text character at a time in a handful of
+	 * word operations.
+	 */
+	private static final class BitParallelPattern {
+		private final int length;
+		private final char[] keys = new char[128];
+		private final long[] masks = new long[128];
+		private final boolean[] used = new boolean[128];
+
+		BitParallelPattern(String pattern) {
+			this.length = pattern.length();
+			for (int i = 0; i < length; i++) {
+				int slot = slot(pattern.charAt(i));
+				keys[slot] = pattern.charAt(i);
+				used[slot] = true;
+				masks[slot] |= 1L << i;
+			}
+		}
+
+		int distance(String text) {
+			if (length == 0) {
+				return text.length();
+			}
+			long last = 1L << (length - 1);
+			long positive = length == 64 ? -1L : (1L << length) - 1;
+			long negative = 0;
+			int score = length;
+			for (int j = 0; j < text.length(); j++) {
+				int slot = slot(text.charAt(j));
+				long equal = used[slot] ? masks[slot] : 0;
+				long vertical = equal | negative;
+				long horizontal = (((equal & positive) + positive) ^ positive) | equal;
+				long horizontalPositive = negative | ~(horizontal | positive);
+				long horizontalNegative = positive & horizontal;
+				if ((horizontalPositive & last) != 0) {
+					score++;
+				} else if ((horizontalNegative & last) != 0) {
+					score--;
+				}
+				// The first row of the matrix grows by one per text character
+				horizontalPositive = (horizontalPositive << 1) | 1;
+				horizontalNegative <<= 1;
+				positive = horizontalNegative | ~(vertical | horizontalPositive);
+				negative = horizontalPositive & vertical;
+			}
+			return score;
+		}
+
+		// Open addressing; at most 64 distinct characters in 128 slots
+		private int slot(char ch) {
+			int slot = (ch * 0x9E37) & 127;
+			while (used[slot] && keys[slot] != ch) {
+				slot = (slot + 1) & 127;
+			}
+			return slot;
+		}
+	}
+}
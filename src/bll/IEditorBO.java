@@ -5,12 +5,18 @@ import java.util.List;
 import java.util.Map;
 
 import dto.Documents;
+import dto.FileSummary;
+import dto.Pages;
+import dto.SearchMode;
+import dto.SearchResult;
 
 public interface IEditorBO {
 	boolean createFile(String nameOfFile, String content);
 
 	boolean updateFile(int id, String fileName, int pageNumber, String content);
 
+	int rebalancePage(int fileId, int pageNumber);
+
 	boolean deleteFile(int id);
 
 	boolean importTextFiles(File file, String fileName);
@@ -19,12 +25,41 @@ public interface IEditorBO {
 
 	List<Documents> getAllFiles();
 
+	List<FileSummary> listFileSummaries();
+
+	/**
+	 * The content of the last page of every file, by file id.
+	 */
+	Map<Integer, String> getLastPageContents();
+
+	List<Pages> getPages(int fileId, int firstPage, int lastPage);
+
+	int getPageCount(int fileId);
+
 	String getFileExtension(String fileName);
 
 	String transliterate(int pageId, String arabicText);
 
 	List<String> searchKeyword(String keyword);
 
+	/**
+	 * Pages holding a word with the same root, lemma or stem as the given
+	 * word, one result per matching word of a page.
+	 */
+	List<SearchResult> searchMorphology(String word, SearchMode mode);
+
+	/**
+	 * Every page and word offset matching an exact phrase or a
+	 * "word NEAR/k word" query.
+	 */
+	List<SearchResult> searchPhrase(String query);
+
+	/**
+	 * Every page and word offset of words within a small edit distance of
+	 * the given word, ignoring harakat and hamza and alef spellings.
+	 */
+	List<SearchResult> searchFuzzy(String word);
+
 	Map<String, String> lemmatizeWords(String text);
 
 	Map<String, List<String>> extractPOS(String text);
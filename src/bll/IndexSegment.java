@@ -0,0 +1,278 @@
+package bll;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Read side of a segment file written by SegmentWriter. The file is memory
+ * mapped and never changes, so lookups only touch the pages of the file they
+ * need and any number of threads can read it at once.
+ */
+class IndexSegment {
+
+	interface PagePredicate {
+		boolean test(int fileId, int pageNumber);
+	}
+
+	private final File file;
+	private final MappedByteBuffer buffer;
+	private final long minGeneration;
+	private final long maxGeneration;
+	private final int termCount;
+	private final int pageCount;
+	private final int termTable;
+	private final int pageTable;
+	private final Set<Integer> fileIds = new HashSet<>();
+
+	private IndexSegment(File file, MappedByteBuffer buffer) throws IOException {
+		this.file = file;
+		this.buffer = buffer;
+		if (buffer.capacity() < SegmentWriter.HEADER_SIZE || buffer.getInt(0) != SegmentWriter.MAGIC) {
+			throw new IOException("Not a search index segment: " + file);
+		}
+		this.minGeneration = buffer.getLong(4);
+		this.maxGeneration = buffer.getLong(12);
+		this.termCount = buffer.getInt(20);
+		this.pageCount = buffer.getInt(24);
+		this.termTable = buffer.getInt(28);
+		this.pageTable = buffer.getInt(32);
+		if (pageTable + (pageCount + 1) * 12L != buffer.capacity()) {
+			throw new IOException("Truncated search index segment: " + file);
+		}
+		for (int page = 0; page < pageCount; page++) {
+			fileIds.add(pageFileId(page));
+		}
+	}
+
+	static IndexSegment open(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			return new IndexSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	long length() {
+		return buffer.capacity();
+	}
+
+	long getMinGeneration() {
+		return minGeneration;
+	}
+
+	long getMaxGeneration() {
+		return maxGeneration;
+	}
+
+	int getPageCount() {
+		return pageCount;
+	}
+
+	int pageFileId(int page) {
+		return buffer.getInt(pageTable + page * 12);
+	}
+
+	int pageNumber(int page) {
+		return buffer.getInt(pageTable + page * 12 + 4);
+	}
+
+	/**
+	 * The postings of a normalized term, keeping only pages accepted by live.
+	 */
+	Postings getPostings(String term, PagePredicate live) {
+		int ordinal = findTerm(term.getBytes(StandardCharsets.UTF_8));
+		if (ordinal < 0) {
+			return new Postings(0);
+		}
+		ByteBuffer view = view(buffer.getInt(termTable + ordinal * 8 + 4));
+		int count = readVarint(view);
+		Postings result = new Postings(count);
+		int fileId = -1;
+		int pageNumber = 0;
+		int position = 0;
+		int checkedFile = -1;
+		int checkedPage = 0;
+		boolean pageLive = false;
+		for (int i = 0; i < count; i++) {
+			int fileDelta = readVarint(view);
+			int pageValue = readVarint(view);
+			int positionValue = readVarint(view);
+			if (fileDelta != 0) {
+				fileId += fileDelta;
+				pageNumber = pageValue;
+				position = positionValue;
+			} else if (pageValue != 0) {
+				pageNumber += pageValue;
+				position = positionValue;
+			} else {
+				position += positionValue;
+			}
+			// Entries are sorted by page, so each page is tested once
+			if (fileId != checkedFile || pageNumber != checkedPage) {
+				checkedFile = fileId;
+				checkedPage = pageNumber;
+				pageLive = live.test(fileId, pageNumber);
+			}
+			if (pageLive) {
+				result.add(fileId, pageNumber, position);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Index of the first page of a file at or after pageNumber, or the page
+	 * count if there is none.
+	 */
+	int lowerBound(int fileId, int pageNumber) {
+		int low = 0;
+		int high = pageCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int file = pageFileId(mid);
+			if (file < fileId || (file == fileId && pageNumber(mid) < pageNumber)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	int findPage(int fileId, int pageNumber) {
+		int page = lowerBound(fileId, pageNumber);
+		return page < pageCount && pageFileId(page) == fileId && pageNumber(page) == pageNumber ? page : -1;
+	}
+
+	/**
+	 * The content hash the page was indexed from, or null if none was kept.
+	 */
+	String pageHash(int page) {
+		ByteBuffer view = view(buffer.getInt(pageTable + page * 12 + 8));
+		byte[] bytes = new byte[readVarint(view)];
+		view.get(bytes);
+		return bytes.length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	List<String> pageTerms(int page) {
+		ByteBuffer view = pageTermsView(page);
+		int length = readVarint(view);
+		List<String> terms = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			terms.add(term(readVarint(view)));
+		}
+		return terms;
+	}
+
+	int pageLength(int page) {
+		return readVarint(pageTermsView(page));
+	}
+
+	String pageTerm(int page, int position) {
+		ByteBuffer view = pageTermsView(page);
+		int length = readVarint(view);
+		if (position < 0 || position >= length) {
+			return null;
+		}
+		for (int i = 0; i < position; i++) {
+			readVarint(view);
+		}
+		return term(readVarint(view));
+	}
+
+	Set<Integer> getFileIds() {
+		return Collections.unmodifiableSet(fileIds);
+	}
+
+	boolean containsFile(int fileId) {
+		return fileIds.contains(fileId);
+	}
+
+	void forEachTerm(Consumer<String> consumer) {
+		for (int ordinal = 0; ordinal < termCount; ordinal++) {
+			consumer.accept(term(ordinal));
+		}
+	}
+
+	private String term(int ordinal) {
+		int start = buffer.getInt(termTable + ordinal * 8);
+		int end = buffer.getInt(termTable + (ordinal + 1) * 8);
+		byte[] bytes = new byte[end - start];
+		view(start).get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int findTerm(byte[] key) {
+		int low = 0;
+		int high = termCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int compare = compareTerm(mid, key);
+			if (compare < 0) {
+				low = mid + 1;
+			} else if (compare > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	private int compareTerm(int ordinal, byte[] key) {
+		int start = buffer.getInt(termTable + ordinal * 8);
+		int length = buffer.getInt(termTable + (ordinal + 1) * 8) - start;
+		int common = Math.min(length, key.length);
+		for (int i = 0; i < common; i++) {
+			int compare = (buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+			if (compare != 0) {
+				return compare;
+			}
+		}
+		return length - key.length;
+	}
+
+	// Past the page's content hash
+	private ByteBuffer pageTermsView(int page) {
+		ByteBuffer view = view(buffer.getInt(pageTable + page * 12 + 8));
+		int hashLength = readVarint(view);
+		view.position(view.position() + hashLength);
+		return view;
+	}
+
+	// Absolute reads on the shared buffer are thread safe; relative ones need their own view
+	private ByteBuffer view(int position) {
+		ByteBuffer view = buffer.duplicate();
+		view.position(position);
+		return view;
+	}
+
+	private static int readVarint(ByteBuffer view) {
+		int value = 0;
+		for (int shift = 0;; shift += 7) {
+			byte b = view.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return file.getName() + "[pages=" + pageCount + ", terms=" + termCount + ", bytes=" + length() + "]";
+	}
+}
@@ -0,0 +1,362 @@
+package bll;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import dal.ArabicTokenizer;
+import dal.HashCalculator;
+
+/**
+ * In-memory search index over the pages of every file. Each normalized term
+ * maps to its Postings, and each page keeps the term ids of its words in
+ * order, which is what replacing or removing a page needs and what result
+ * snippets are read from, and the content hash it was indexed from. Safe for
+ * concurrent readers and writers.
+ */
+public class InvertedIndex implements SearchIndex {
+	private final Map<String, Integer> termIds = new HashMap<>();
+	private final List<String> terms = new ArrayList<>();
+	private final List<Postings> postings = new ArrayList<>();
+	private final NavigableMap<Long, int[]> pages = new TreeMap<>();
+	private final Map<Long, String> pageHashes = new HashMap<>();
+	private final Map<Integer, String> fileNames = new HashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private static long pageKey(int fileId, int pageNumber) {
+		return ((long) fileId << 32) | (pageNumber & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Splits page content into its normalized terms, in order.
+	 */
+	static List<String> terms(String content) {
+		List<String> terms = new ArrayList<>(ArabicTokenizer.count(content));
+		ArabicTokenizer tokens = new ArabicTokenizer(content);
+		while (tokens.next()) {
+			String term = TermNormalizer.normalize(tokens.token());
+			if (!term.isEmpty()) {
+				terms.add(term);
+			}
+		}
+		return terms;
+	}
+
+	/**
+	 * The hash the database keeps in pages.contentHash for this content.
+	 */
+	static String contentHash(String content) {
+		try {
+			return HashCalculator.calculateHash(content);
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not hash page content", e);
+		}
+	}
+
+	@Override
+	public boolean addPage(int fileId, int pageNumber, String content) {
+		String hash = contentHash(content);
+		if (hash.equals(getPageHash(fileId, pageNumber))) {
+			return false;
+		}
+		addPageTerms(fileId, pageNumber, hash, terms(content));
+		return true;
+	}
+
+	/**
+	 * Indexes a page given as its content hash and normalized terms,
+	 * replacing what was indexed for it.
+	 */
+	public void addPageTerms(int fileId, int pageNumber, String hash, List<String> pageTerms) {
+		lock.writeLock().lock();
+		try {
+			removePageLocked(fileId, pageNumber);
+			pageHashes.put(pageKey(fileId, pageNumber), hash);
+
+			int[] sequence = new int[pageTerms.size()];
+			for (int i = 0; i < sequence.length; i++) {
+				sequence[i] = termId(pageTerms.get(i));
+			}
+			pages.put(pageKey(fileId, pageNumber), sequence);
+
+			// Positions of each term in ascending order, then one insert per term
+			Map<Integer, int[]> positions = new HashMap<>();
+			Map<Integer, Integer> counts = new HashMap<>();
+			for (int position = 0; position < sequence.length; position++) {
+				int id = sequence[position];
+				int count = counts.getOrDefault(id, 0);
+				int[] list = positions.get(id);
+				if (list == null || list.length == count) {
+					list = list == null ? new int[4] : Arrays.copyOf(list, count * 2);
+					positions.put(id, list);
+				}
+				list[count] = position;
+				counts.put(id, count + 1);
+			}
+			for (Map.Entry<Integer, int[]> entry : positions.entrySet()) {
+				postings.get(entry.getKey()).insertPage(fileId, pageNumber, entry.getValue(), counts.get(entry.getKey()));
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void removePage(int fileId, int pageNumber) {
+		lock.writeLock().lock();
+		try {
+			removePageLocked(fileId, pageNumber);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * The content hash the page was indexed from, or null if it is not indexed.
+	 */
+	String getPageHash(int fileId, int pageNumber) {
+		lock.readLock().lock();
+		try {
+			return pageHashes.get(pageKey(fileId, pageNumber));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	boolean hasPage(int fileId, int pageNumber) {
+		lock.readLock().lock();
+		try {
+			return pages.containsKey(pageKey(fileId, pageNumber));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void removeFile(int fileId) {
+		lock.writeLock().lock();
+		try {
+			NavigableMap<Long, int[]> filePages = pages.subMap(pageKey(fileId, 0), true,
+					pageKey(fileId, -1), true);
+			Set<Integer> ids = new HashSet<>();
+			for (int[] sequence : filePages.values()) {
+				for (int id : sequence) {
+					ids.add(id);
+				}
+			}
+			for (int id : ids) {
+				postings.get(id).removeFile(fileId);
+			}
+			pageHashes.keySet().removeAll(filePages.keySet());
+			filePages.clear();
+			fileNames.remove(fileId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void setFileName(int fileId, String name) {
+		lock.writeLock().lock();
+		try {
+			fileNames.put(fileId, name);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public String getFileName(int fileId) {
+		lock.readLock().lock();
+		try {
+			return fileNames.get(fileId);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Set<Integer> getFileIds() {
+		lock.readLock().lock();
+		try {
+			return new HashSet<>(fileNames.keySet());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * A snapshot of the postings of a normalized term; empty if the term
+	 * does not occur.
+	 */
+	@Override
+	public Postings getPostings(String term) {
+		lock.readLock().lock();
+		try {
+			Integer id = termIds.get(term);
+			return id == null ? new Postings(0) : postings.get(id).copy();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public String getTerm(int fileId, int pageNumber, int position) {
+		lock.readLock().lock();
+		try {
+			int[] sequence = pages.get(pageKey(fileId, pageNumber));
+			if (sequence == null || position < 0 || position >= sequence.length) {
+				return null;
+			}
+			return terms.get(sequence[position]);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public int getPageLength(int fileId, int pageNumber) {
+		lock.readLock().lock();
+		try {
+			int[] sequence = pages.get(pageKey(fileId, pageNumber));
+			return sequence == null ? -1 : sequence.length;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Map<Integer, String> getPageHashes(int fileId) {
+		lock.readLock().lock();
+		try {
+			Map<Integer, String> result = new HashMap<>();
+			for (long key : pages.subMap(pageKey(fileId, 0), true, pageKey(fileId, -1), true).keySet()) {
+				result.put((int) key, pageHashes.get(key));
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The normalized terms of every page of a file, keyed by page number.
+	 */
+	public NavigableMap<Integer, List<String>> getFilePages(int fileId) {
+		lock.readLock().lock();
+		try {
+			NavigableMap<Integer, List<String>> result = new TreeMap<>();
+			for (Map.Entry<Long, int[]> entry : pages.subMap(pageKey(fileId, 0), true, pageKey(fileId, -1), true)
+					.entrySet()) {
+				result.put((int) (long) entry.getKey(), termsOf(entry.getValue()));
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Calls the visitor with every page in file and page order.
+	 */
+	public void forEachPage(PageVisitor visitor) {
+		lock.readLock().lock();
+		try {
+			for (Map.Entry<Long, int[]> entry : pages.entrySet()) {
+				long key = entry.getKey();
+				visitor.visit((int) (key >>> 32), (int) key, pageHashes.get(key), termsOf(entry.getValue()));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void forEachTerm(Consumer<String> consumer) {
+		List<String> snapshot;
+		lock.readLock().lock();
+		try {
+			snapshot = new ArrayList<>(terms);
+		} finally {
+			lock.readLock().unlock();
+		}
+		snapshot.forEach(consumer);
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+	}
+
+	public int getTermCount() {
+		lock.readLock().lock();
+		try {
+			return terms.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getPageCount() {
+		lock.readLock().lock();
+		try {
+			return pages.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void removePageLocked(int fileId, int pageNumber) {
+		pageHashes.remove(pageKey(fileId, pageNumber));
+		int[] sequence = pages.remove(pageKey(fileId, pageNumber));
+		if (sequence == null) {
+			return;
+		}
+		Set<Integer> ids = new HashSet<>();
+		for (int id : sequence) {
+			if (ids.add(id)) {
+				postings.get(id).removePage(fileId, pageNumber);
+			}
+		}
+	}
+
+	private List<String> termsOf(int[] sequence) {
+		List<String> result = new ArrayList<>(sequence.length);
+		for (int id : sequence) {
+			result.add(terms.get(id));
+		}
+		return result;
+	}
+
+	private int termId(String term) {
+		Integer id = termIds.get(term);
+		if (id == null) {
+			id = terms.size();
+			termIds.put(term, id);
+			terms.add(term);
+			postings.add(new Postings());
+		}
+		return id;
+	}
+
+	public interface PageVisitor {
+		void visit(int fileId, int pageNumber, String hash, List<String> terms);
+	}
+
+	@Override
+	public String toString() {
+		return "InvertedIndex[terms=" + getTermCount() + ", pages=" + getPageCount() + "]";
+	}
+}
@@ -0,0 +1,304 @@
+package bll;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Phrase and proximity matching over positional Postings. Pages holding
+ * every term are found by leapfrogging: each list gallops to the furthest
+ * page any list has reached, so a rare term steps a frequent one through
+ * only the pages the rare term is on. Positions are compared within a page
+ * first; a match whose words would run past either end of a page is then
+ * checked against the neighbouring pages, so page n's trailing words join
+ * page n + 1's leading words as one run of text.
+ */
+class PositionalMatcher {
+
+	interface MatchConsumer {
+		void match(int fileId, int pageNumber, int position, int wordCount);
+	}
+
+	private interface PageVisitor {
+		void visit(int fileId, int pageNumber, int[] from, int[] to);
+	}
+
+	private interface NeighbourVisitor {
+		void visit(int pageNumber, int offset);
+	}
+
+	/**
+	 * Reports every place where the terms occur one after another, in file,
+	 * page and position order.
+	 */
+	static void matchPhrase(SearchIndex index, List<String> terms, List<Postings> postings, MatchConsumer consumer) {
+		int length = postings.size();
+		List<int[]> matches = new ArrayList<>();
+		forEachCommonPage(postings, (fileId, pageNumber, from, to) -> {
+			// Walk the term with the fewest positions on this page and probe the others
+			int driver = 0;
+			for (int i = 1; i < length; i++) {
+				if (to[i] - from[i] < to[driver] - from[driver]) {
+					driver = i;
+				}
+			}
+			Postings driving = postings.get(driver);
+			for (int entry = from[driver]; entry < to[driver]; entry++) {
+				int start = driving.position(entry) - driver;
+				boolean matched = start >= 0;
+				for (int i = 0; matched && i < length; i++) {
+					matched = i == driver || postings.get(i).containsPosition(from[i], to[i], start + i);
+				}
+				if (matched) {
+					matches.add(new int[] { fileId, pageNumber, start });
+				}
+			}
+		});
+
+		if (length > 1) {
+			// Phrases crossing a page end: walk the rarest term's occurrences near one
+			int driver = 0;
+			for (int i = 1; i < length; i++) {
+				if (postings.get(i).size() < postings.get(driver).size()) {
+					driver = i;
+				}
+			}
+			PageLengths pages = new PageLengths(index);
+			Postings driving = postings.get(driver);
+			for (int entry = 0; entry < driving.size(); entry++) {
+				int fileId = driving.fileId(entry);
+				int pageNumber = driving.pageNumber(entry);
+				int position = driving.position(entry);
+				if (position - driver >= 0 && position + length - 1 - driver < pages.length(fileId, pageNumber)) {
+					continue;
+				}
+				long start = -1;
+				boolean matched = true;
+				for (int i = 0; matched && i < length; i++) {
+					long at = pages.move(fileId, pageNumber, position, i - driver);
+					matched = at >= 0 && (i == driver || terms.get(i).equals(
+							index.getTerm(fileId, (int) (at >> 32), (int) at)));
+					if (i == 0) {
+						start = at;
+					}
+				}
+				if (matched) {
+					matches.add(new int[] { fileId, (int) (start >> 32), (int) start });
+				}
+			}
+		}
+
+		// Within-page and cross-page matches are disjoint; only their order needs fixing
+		matches.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0])
+				: a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(a[2], b[2]));
+		for (int[] match : matches) {
+			consumer.match(match[0], match[1], match[2], length);
+		}
+	}
+
+	/**
+	 * Reports every occurrence of the first term with an occurrence of the
+	 * second at most distance words before or after it, pairing it with the
+	 * earliest such occurrence.
+	 */
+	static void matchNear(SearchIndex index, Postings first, Postings second, int distance, MatchConsumer consumer) {
+		// First-term entry -> { partner page, partner position, offset from the first term }
+		TreeMap<Integer, int[]> partners = new TreeMap<>();
+		forEachCommonPage(Arrays.asList(first, second), (fileId, pageNumber, from, to) -> {
+			int window = from[1];
+			for (int entry = from[0]; entry < to[0]; entry++) {
+				int position = first.position(entry);
+				while (window < to[1] && second.position(window) < position - distance) {
+					window++;
+				}
+				for (int other = window; other < to[1] && second.position(other) <= position + distance; other++) {
+					int otherPosition = second.position(other);
+					// The same word does not count as near itself
+					if (otherPosition != position) {
+						partners.put(entry, new int[] { pageNumber, otherPosition, otherPosition - position });
+						break;
+					}
+				}
+			}
+		});
+
+		// Pairs across a page end, found from whichever term occurs less often
+		PageLengths pages = new PageLengths(index);
+		boolean driveFirst = first.size() <= second.size();
+		Postings driving = driveFirst ? first : second;
+		Postings other = driveFirst ? second : first;
+		for (int entry = 0; entry < driving.size(); entry++) {
+			int fileId = driving.fileId(entry);
+			int pageNumber = driving.pageNumber(entry);
+			int position = driving.position(entry);
+			int drivingEntry = entry;
+			pages.forEachNeighbour(fileId, pageNumber, position, distance, (neighbour, offset) -> {
+				int end = other.lowerBound(fileId, neighbour + 1);
+				for (int at = other.lowerBound(fileId, neighbour); at < end; at++) {
+					int apart = offset + other.position(at);
+					if (Math.abs(apart) > distance) {
+						continue;
+					}
+					int[] partner = driveFirst ? new int[] { neighbour, other.position(at), apart }
+							: new int[] { pageNumber, position, -apart };
+					int firstEntry = driveFirst ? drivingEntry : at;
+					int[] current = partners.get(firstEntry);
+					if (current == null || partner[2] < current[2]) {
+						partners.put(firstEntry, partner);
+					}
+				}
+			});
+		}
+
+		for (Map.Entry<Integer, int[]> pair : partners.entrySet()) {
+			int entry = pair.getKey();
+			int[] partner = pair.getValue();
+			if (partner[2] < 0) {
+				consumer.match(first.fileId(entry), partner[0], partner[1], 1 - partner[2]);
+			} else {
+				consumer.match(first.fileId(entry), first.pageNumber(entry), first.position(entry), 1 + partner[2]);
+			}
+		}
+	}
+
+	/**
+	 * The count terms from a position on, continuing onto the following pages
+	 * where a match runs past the end of its page.
+	 */
+	static List<String> terms(SearchIndex index, int fileId, int pageNumber, int position, int count) {
+		PageLengths pages = new PageLengths(index);
+		List<String> terms = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			long at = pages.move(fileId, pageNumber, position, i);
+			if (at < 0) {
+				break;
+			}
+			terms.add(index.getTerm(fileId, (int) (at >> 32), (int) at));
+		}
+		return terms;
+	}
+
+	private static void forEachCommonPage(List<Postings> lists, PageVisitor visitor) {
+		int count = lists.size();
+		int[] cursor = new int[count];
+		int[] end = new int[count];
+		if (count == 0) {
+			return;
+		}
+		while (true) {
+			long target = Long.MIN_VALUE;
+			for (int i = 0; i < count; i++) {
+				if (cursor[i] >= lists.get(i).size()) {
+					return;
+				}
+				target = Math.max(target, pageKey(lists.get(i), cursor[i]));
+			}
+			int fileId = (int) (target >> 32);
+			int pageNumber = (int) target;
+
+			boolean aligned = true;
+			for (int i = 0; i < count; i++) {
+				Postings list = lists.get(i);
+				cursor[i] = list.gallop(fileId, pageNumber, cursor[i]);
+				if (cursor[i] >= list.size()) {
+					return;
+				}
+				aligned &= pageKey(list, cursor[i]) == target;
+			}
+			if (!aligned) {
+				continue;
+			}
+
+			for (int i = 0; i < count; i++) {
+				end[i] = lists.get(i).gallop(fileId, pageNumber + 1, cursor[i]);
+			}
+			visitor.visit(fileId, pageNumber, cursor, end);
+			System.arraycopy(end, 0, cursor, 0, count);
+		}
+	}
+
+	private static long pageKey(Postings postings, int index) {
+		return ((long) postings.fileId(index) << 32) | (postings.pageNumber(index) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Page lengths looked up once per matching run, for moving between
+	 * positions on neighbouring pages of a file.
+	 */
+	private static final class PageLengths {
+
+		private final SearchIndex index;
+		private final Map<Long, Integer> lengths = new HashMap<>();
+
+		PageLengths(SearchIndex index) {
+			this.index = index;
+		}
+
+		int length(int fileId, int pageNumber) {
+			if (pageNumber < 1) {
+				return -1;
+			}
+			long key = ((long) fileId << 32) | (pageNumber & 0xFFFFFFFFL);
+			Integer length = lengths.get(key);
+			if (length == null) {
+				length = index.getPageLength(fileId, pageNumber);
+				lengths.put(key, length);
+			}
+			return length;
+		}
+
+		/**
+		 * The page and position offset words after (or before, if negative)
+		 * the given one, packed as page << 32 | position, or -1 past the
+		 * first or last page of the file.
+		 */
+		long move(int fileId, int pageNumber, int position, int offset) {
+			int page = pageNumber;
+			int at = position + offset;
+			while (at < 0) {
+				int length = length(fileId, --page);
+				if (length < 0) {
+					return -1;
+				}
+				at += length;
+			}
+			int length;
+			while (at >= (length = length(fileId, page))) {
+				if (length < 0) {
+					return -1;
+				}
+				at -= length;
+				page++;
+			}
+			return ((long) page << 32) | at;
+		}
+
+		/**
+		 * Visits each other page with a word at most distance words from the
+		 * given one, with the offset of that page's first word from it.
+		 */
+		void forEachNeighbour(int fileId, int pageNumber, int position, int distance, NeighbourVisitor visitor) {
+			int offset = -position;
+			for (int page = pageNumber - 1; offset > -distance; page--) {
+				int length = length(fileId, page);
+				if (length < 0) {
+					break;
+				}
+				offset -= length;
+				visitor.visit(page, offset);
+			}
+			offset = length(fileId, pageNumber) - position;
+			for (int page = pageNumber + 1; offset <= distance; page++) {
+				int length = length(fileId, page);
+				if (length < 0) {
+					break;
+				}
+				visitor.visit(page, offset);
+				offset += length;
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package bll;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Occurrences of one term as packed (fileId, pageNumber, position) int
+ * triples, kept sorted so the entries of a page or a file form one range.
+ */
+public class Postings {
+	private static final int WIDTH = 3;
+
+	private int[] data;
+	private int size = 0;
+
+	public Postings() {
+		this(4);
+	}
+
+	public Postings(int capacity) {
+		this.data = new int[Math.max(1, capacity) * WIDTH];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int fileId(int index) {
+		return data[index * WIDTH];
+	}
+
+	public int pageNumber(int index) {
+		return data[index * WIDTH + 1];
+	}
+
+	public int position(int index) {
+		return data[index * WIDTH + 2];
+	}
+
+	/**
+	 * Index of the first entry at or after (fileId, pageNumber), or size if
+	 * there is none.
+	 */
+	public int lowerBound(int fileId, int pageNumber) {
+		return lowerBound(fileId, pageNumber, 0);
+	}
+
+	public int lowerBound(int fileId, int pageNumber, int from) {
+		return lowerBound(fileId, pageNumber, from, size);
+	}
+
+	/**
+	 * Same as lowerBound, but probes from + 1, from + 2, from + 4, ... before
+	 * the binary search, so the cost grows with the distance skipped rather
+	 * than with the list. Intersections step through long lists this way.
+	 */
+	public int gallop(int fileId, int pageNumber, int from) {
+		int bound = from;
+		int step = 1;
+		while (bound < size && isBefore(bound, fileId, pageNumber)) {
+			from = bound + 1;
+			bound += step;
+			step <<= 1;
+		}
+		return lowerBound(fileId, pageNumber, from, Math.min(bound, size));
+	}
+
+	/**
+	 * Whether an entry in [from, to) of one page has the given position.
+	 */
+	public boolean containsPosition(int from, int to, int position) {
+		int low = from;
+		int high = to - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int value = position(mid);
+			if (value < position) {
+				low = mid + 1;
+			} else if (value > position) {
+				high = mid - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int lowerBound(int fileId, int pageNumber, int from, int to) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (isBefore(mid, fileId, pageNumber)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private boolean isBefore(int index, int fileId, int pageNumber) {
+		int file = fileId(index);
+		return file < fileId || (file == fileId && pageNumber(index) < pageNumber);
+	}
+
+	/**
+	 * Adds the ascending positions of this term on a page that currently has
+	 * no entries.
+	 */
+	public void insertPage(int fileId, int pageNumber, int[] positions, int count) {
+		int at = lowerBound(fileId, pageNumber);
+		ensureCapacity(size + count);
+		System.arraycopy(data, at * WIDTH, data, (at + count) * WIDTH, (size - at) * WIDTH);
+		for (int i = 0; i < count; i++) {
+			int offset = (at + i) * WIDTH;
+			data[offset] = fileId;
+			data[offset + 1] = pageNumber;
+			data[offset + 2] = positions[i];
+		}
+		size += count;
+	}
+
+	public void add(int fileId, int pageNumber, int position) {
+		ensureCapacity(size + 1);
+		int offset = size * WIDTH;
+		data[offset] = fileId;
+		data[offset + 1] = pageNumber;
+		data[offset + 2] = position;
+		size++;
+	}
+
+	public void removePage(int fileId, int pageNumber) {
+		remove(lowerBound(fileId, pageNumber), lowerBound(fileId, pageNumber + 1));
+	}
+
+	public void removeFile(int fileId) {
+		remove(lowerBound(fileId, Integer.MIN_VALUE), lowerBound(fileId + 1, Integer.MIN_VALUE));
+	}
+
+	public Postings copy() {
+		Postings copy = new Postings(0);
+		copy.data = Arrays.copyOf(data, size * WIDTH);
+		copy.size = size;
+		return copy;
+	}
+
+	/**
+	 * Merges sorted postings into one sorted list, two at a time so each
+	 * entry is copied once per halving of the list count.
+	 */
+	public static Postings merge(List<Postings> parts) {
+		if (parts.isEmpty()) {
+			return new Postings(0);
+		}
+		if (parts.size() == 1) {
+			return parts.get(0);
+		}
+		int middle = parts.size() / 2;
+		Postings left = merge(parts.subList(0, middle));
+		Postings right = merge(parts.subList(middle, parts.size()));
+
+		Postings merged = new Postings(left.size + right.size);
+		int i = 0;
+		int j = 0;
+		while (i < left.size || j < right.size) {
+			Postings from;
+			int index;
+			if (j >= right.size || (i < left.size && left.compareEntry(i, right, j) <= 0)) {
+				from = left;
+				index = i++;
+			} else {
+				from = right;
+				index = j++;
+			}
+			int offset = index * WIDTH;
+			merged.add(from.data[offset], from.data[offset + 1], from.data[offset + 2]);
+		}
+		return merged;
+	}
+
+	private int compareEntry(int index, Postings other, int otherIndex) {
+		for (int field = 0; field < WIDTH; field++) {
+			int compare = Integer.compare(data[index * WIDTH + field], other.data[otherIndex * WIDTH + field]);
+			if (compare != 0) {
+				return compare;
+			}
+		}
+		return 0;
+	}
+
+	private void remove(int from, int to) {
+		if (from >= to) {
+			return;
+		}
+		System.arraycopy(data, to * WIDTH, data, from * WIDTH, (size - to) * WIDTH);
+		size -= to - from;
+	}
+
+	private void ensureCapacity(int entries) {
+		if (entries * WIDTH > data.length) {
+			data = Arrays.copyOf(data, Math.max(entries * WIDTH, data.length * 2));
+		}
+	}
+}
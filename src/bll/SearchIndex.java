@@ -0,0 +1,72 @@
+package bll;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Term index over the pages of every file, as used by SearchWord. Terms are
+ * normalized with TermNormalizer and positions count the normalized words of
+ * a page. The implementation is chosen with search.index.type.
+ */
+public interface SearchIndex extends AutoCloseable {
+
+	/**
+	 * Indexes the content of a page, replacing what was indexed for it.
+	 * Returns false, leaving the index as it is, if the page is already
+	 * indexed from the same content.
+	 */
+	boolean addPage(int fileId, int pageNumber, String content);
+
+	/**
+	 * Drops a page, for pages that no longer exist after a merge moved their
+	 * text to the page before.
+	 */
+	void removePage(int fileId, int pageNumber);
+
+	void removeFile(int fileId);
+
+	void setFileName(int fileId, String name);
+
+	String getFileName(int fileId);
+
+	Set<Integer> getFileIds();
+
+	/**
+	 * Occurrences of a normalized term, sorted by file, page and position.
+	 */
+	Postings getPostings(String term);
+
+	/**
+	 * The normalized term at a position of a page, or null outside the page.
+	 */
+	String getTerm(int fileId, int pageNumber, int position);
+
+	/**
+	 * The number of terms on a page, or -1 if the page is not indexed.
+	 */
+	int getPageLength(int fileId, int pageNumber);
+
+	/**
+	 * The content hash of every indexed page of a file by page number, as
+	 * HashCalculator computes it from the text the page was indexed from.
+	 */
+	Map<Integer, String> getPageHashes(int fileId);
+
+	/**
+	 * Calls the consumer with every indexed term, possibly more than once and
+	 * possibly including terms no page holds any more.
+	 */
+	void forEachTerm(Consumer<String> consumer);
+
+	/**
+	 * Makes every change so far durable. Does nothing for an in-memory index.
+	 */
+	void flush();
+
+	/**
+	 * Flushes and releases whatever the index holds open.
+	 */
+	@Override
+	void close();
+}
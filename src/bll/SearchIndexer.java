@@ -0,0 +1,301 @@
+package bll;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dal.Configuration;
+import dal.CorpusReader;
+import dal.IFacadeDAO;
+import dto.Documents;
+import dto.FileSummary;
+import dto.Pages;
+import pl.EditorPO;
+
+/**
+ * Keeps the SearchIndex in step with the database. An empty index is built
+ * once in the background from a streamed read of every page. An index that
+ * was persisted by an earlier run is reconciled instead: files created or
+ * deleted since then are added or dropped, and files with a page whose
+ * stored content hash differs from the one it was indexed from are re-read,
+ * which covers edits lost with an unflushed buffer and edits made by other
+ * clients. Afterwards the create, update, rebalance and delete paths report
+ * their changes here. Changes reported while the build is running are
+ * replayed when it ends.
+ */
+public class SearchIndexer {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	private final IFacadeDAO db;
+	private final SearchIndex index;
+	private final FuzzyTermIndex fuzzyTerms = new FuzzyTermIndex();
+	private final CountDownLatch built = new CountDownLatch(1);
+	private final CountDownLatch fuzzyBuilt = new CountDownLatch(1);
+
+	private boolean building = true;
+	private boolean syncPending = false;
+	private final Set<Integer> pendingFiles = new HashSet<>();
+
+	public SearchIndexer(IFacadeDAO db) {
+		this(db, createIndex());
+	}
+
+	public SearchIndexer(IFacadeDAO db, SearchIndex index) {
+		this.db = db;
+		this.index = index;
+	}
+
+	public void start() {
+		Thread thread = new Thread(this::build, "search-index-build");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Returns the index once the initial build has finished; start() must
+	 * have been called.
+	 */
+	public SearchIndex awaitIndex() {
+		try {
+			built.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the terms of the index for fuzzy lookup once they have been
+	 * loaded, which only starts after the index itself is released, so other
+	 * searches never wait for it.
+	 */
+	public FuzzyTermIndex awaitFuzzyTerms() {
+		try {
+			fuzzyBuilt.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return fuzzyTerms;
+	}
+
+	/**
+	 * Picks up files created since the last look by diffing the file list.
+	 */
+	public synchronized void filesCreated() {
+		if (building) {
+			syncPending = true;
+			return;
+		}
+		syncFiles();
+	}
+
+	public synchronized void pageUpdated(int fileId, String fileName, int pageNumber, String content) {
+		if (building) {
+			pendingFiles.add(fileId);
+			return;
+		}
+		index.setFileName(fileId, fileName);
+		if (index.addPage(fileId, pageNumber, content)) {
+			fuzzyTerms.addAll(InvertedIndex.terms(content));
+		}
+	}
+
+	/**
+	 * Re-reads the pages from firstPage to lastPage after a rebalance split,
+	 * merged or renumbered them, and drops the page numbers past lastPage
+	 * that a merge left behind. Rebalancing only moves words between pages,
+	 * so the fuzzy terms stay as they are.
+	 */
+	public synchronized void pagesMoved(int fileId, int firstPage, int lastPage, int pageCountChange) {
+		if (building) {
+			pendingFiles.add(fileId);
+			return;
+		}
+		for (Pages page : db.getPagesFromDB(fileId, firstPage, lastPage)) {
+			index.addPage(fileId, page.getPageNumber(), page.getPageContent());
+		}
+		for (int removed = lastPage + 1; removed <= lastPage - pageCountChange; removed++) {
+			index.removePage(fileId, removed);
+		}
+	}
+
+	/**
+	 * Re-reads every page of a file, for changes that removed the file.
+	 */
+	public synchronized void fileChanged(int fileId) {
+		if (building) {
+			pendingFiles.add(fileId);
+			return;
+		}
+		reindexFile(fileId, db.getFileById(fileId));
+	}
+
+	private void build() {
+		long start = System.currentTimeMillis();
+		boolean restored = !index.getFileIds().isEmpty();
+		try {
+			if (!restored) {
+				for (FileSummary summary : db.listFileSummaries()) {
+					index.setFileName(summary.getId(), summary.getName());
+				}
+				int pages = db.readCorpus((fileId, pageNumber, content) -> index.addPage(fileId, pageNumber, content));
+				index.flush();
+				LOGGER.info("Built search index from " + pages + " pages in " + (System.currentTimeMillis() - start)
+						+ " ms: " + index);
+			}
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+
+		synchronized (this) {
+			building = false;
+			if (restored) {
+				reconcile();
+			} else if (syncPending) {
+				syncFiles();
+			}
+			for (int fileId : pendingFiles) {
+				reindexFile(fileId, db.getFileById(fileId));
+			}
+			pendingFiles.clear();
+		}
+		built.countDown();
+
+		// Terms added by updates in the meantime are already in fuzzyTerms, and adding one twice is harmless
+		try {
+			long fuzzyStart = System.currentTimeMillis();
+			index.forEachTerm(fuzzyTerms::add);
+			LOGGER.info("Loaded " + fuzzyTerms.size() + " fuzzy search terms in "
+					+ (System.currentTimeMillis() - fuzzyStart) + " ms");
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		} finally {
+			fuzzyBuilt.countDown();
+		}
+	}
+
+	private static SearchIndex createIndex() {
+		String indexClassName = Configuration.getProperty("search.index.type", InvertedIndex.class.getName());
+		try {
+			Class<?> clazz = Class.forName(indexClassName); // Load class by name
+			SearchIndex index = (SearchIndex) clazz.getDeclaredConstructor().newInstance(); // Instantiate class
+			Runtime.getRuntime().addShutdownHook(new Thread(index::close));
+			return index;
+		} catch (Exception | LinkageError e) {
+			e.printStackTrace();
+			LOGGER.error("Failed to create search index " + indexClassName + ", keeping it in memory: " + e);
+			return new InvertedIndex();
+		}
+	}
+
+	private void syncFiles() {
+		Set<Integer> indexed = index.getFileIds();
+		List<Integer> added = new ArrayList<>();
+		for (FileSummary summary : db.listFileSummaries()) {
+			if (!indexed.remove(summary.getId())) {
+				added.add(summary.getId());
+			}
+		}
+		// Whatever is left was deleted behind our back
+		for (int fileId : indexed) {
+			index.removeFile(fileId);
+		}
+		for (int fileId : added) {
+			reindexFile(fileId, db.getFileById(fileId));
+		}
+	}
+
+	private void reconcile() {
+		long start = System.currentTimeMillis();
+		Set<Integer> gone = index.getFileIds();
+		for (FileSummary summary : db.listFileSummaries()) {
+			gone.remove(summary.getId());
+			index.setFileName(summary.getId(), summary.getName());
+		}
+		for (int fileId : gone) {
+			index.removeFile(fileId);
+		}
+
+		StaleFileFinder finder = new StaleFileFinder();
+		if (db.readPageHashes(finder) < 0) {
+			LOGGER.error("Could not read page hashes; the restored search index may be out of date");
+			return;
+		}
+		List<Integer> stale = finder.finish();
+		for (int fileId : stale) {
+			reindexFile(fileId, db.getFileById(fileId));
+		}
+		LOGGER.info("Reconciled search index in " + (System.currentTimeMillis() - start) + " ms, re-read "
+				+ stale.size() + " files");
+	}
+
+	/**
+	 * Compares the page hashes of consecutive pages of one file with the
+	 * index when the stream moves on to the next file.
+	 */
+	private class StaleFileFinder implements CorpusReader.PageConsumer {
+		private final Map<Integer, String> hashes = new HashMap<>();
+		private final Set<Integer> seen = new HashSet<>();
+		private final List<Integer> stale = new ArrayList<>();
+		private int fileId = -1;
+
+		@Override
+		public void accept(int pageFileId, int pageNumber, String contentHash) {
+			if (pageFileId != fileId) {
+				check();
+				fileId = pageFileId;
+			}
+			hashes.put(pageNumber, contentHash);
+		}
+
+		List<Integer> finish() {
+			check();
+			// Indexed files that have no pages left
+			for (int indexed : index.getFileIds()) {
+				if (!seen.contains(indexed) && !index.getPageHashes(indexed).isEmpty()) {
+					stale.add(indexed);
+				}
+			}
+			return stale;
+		}
+
+		private void check() {
+			if (fileId == -1) {
+				return;
+			}
+			seen.add(fileId);
+			Map<Integer, String> indexed = index.getPageHashes(fileId);
+			boolean same = indexed.keySet().equals(hashes.keySet());
+			for (Map.Entry<Integer, String> page : hashes.entrySet()) {
+				// Pages stored before hashes were kept are trusted
+				same &= page.getValue() == null || page.getValue().equals(indexed.get(page.getKey()));
+			}
+			if (!same) {
+				stale.add(fileId);
+			}
+			hashes.clear();
+			fileId = -1;
+		}
+	}
+
+	private void reindexFile(int fileId, Documents document) {
+		index.removeFile(fileId);
+		if (document == null) {
+			return;
+		}
+		index.setFileName(fileId, document.getName());
+		for (Pages page : document.getPages()) {
+			index.addPage(fileId, page.getPageNumber(), page.getPageContent());
+			fuzzyTerms.addAll(InvertedIndex.terms(page.getPageContent()));
+		}
+	}
+}
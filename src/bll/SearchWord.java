@@ -2,15 +2,21 @@ package bll;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import dal.ArabicTokenizer;
 import dto.Documents;
 import dto.Pages;
+import dto.SearchResult;
 import pl.EditorPO;
 
 public class SearchWord {
+	private static final Pattern NEAR = Pattern.compile("(\\S+)\\s+NEAR/(\\d{1,4})\\s+(\\S+)", Pattern.CASE_INSENSITIVE);
+
 	public static List<String> searchKeyword(String keyword, List<Documents> docs) {
 		final Logger LOGGER = LogManager.getLogger(EditorPO.class);
 		// TODO Auto-generated method stub
@@ -24,20 +30,19 @@ public class SearchWord {
 				String pageContent = page.getPageContent();
 				if (pageContent.contains(keyword)) {
 
-					String[] words = pageContent.split("\\s+");
+					ArabicTokenizer words = new ArabicTokenizer(pageContent);
+					int prefixStart = 0;
+					int prefixEnd = 0;
 
-					for (int i = 0; i < words.length; i++) {
-						if (words[i].equalsIgnoreCase(keyword)) {
+					while (words.next()) {
+						if (words.tokenEquals(keyword, true)) {
 
-							String prefixWord;
-							if (i > 0) {
-								prefixWord = words[i - 1];
-							} else {
-								prefixWord = "";
-							}
+							String prefixWord = pageContent.substring(prefixStart, prefixEnd);
 							getFiles.add(doc.getName() + " - " + prefixWord + " " + keyword + "...");
 							break;
 						}
+						prefixStart = words.start();
+						prefixEnd = words.end();
 					}
 					break;
 				}
@@ -46,4 +51,101 @@ public class SearchWord {
 		return getFiles;
 	}
 
+	/**
+	 * searchKeyword(String, List) read from the index: for each file
+	 * containing the word, its first occurrence with the word before it. The
+	 * index only keeps normalized terms, so the word before is shown
+	 * lower-cased and without harakat or punctuation.
+	 */
+	public static List<String> searchKeyword(String keyword, SearchIndex index) {
+		if (keyword == null || keyword.trim().length() < 3) {
+			throw new IllegalArgumentException("Could not Search, Please Enter at least 3 letter to search");
+		}
+		keyword = keyword.trim();
+
+		List<String> getFiles = new ArrayList<>();
+		Postings hits = index.getPostings(TermNormalizer.normalize(keyword));
+		for (int i = 0; i < hits.size(); i = hits.lowerBound(hits.fileId(i) + 1, Integer.MIN_VALUE, i)) {
+			int fileId = hits.fileId(i);
+			String prefixWord = index.getTerm(fileId, hits.pageNumber(i), hits.position(i) - 1);
+			String fileName = index.getFileName(fileId);
+			getFiles.add((fileName != null ? fileName : String.valueOf(fileId)) + " - "
+					+ (prefixWord != null ? prefixWord : "") + " " + keyword + "...");
+		}
+		return getFiles;
+	}
+
+	/**
+	 * Every occurrence of a query on every page. The query is either
+	 * "word NEAR/k word", for two words at most k words apart in either
+	 * order, or one or more words matched as an exact phrase, with or without
+	 * quotes. Words are compared after TermNormalizer, as in searchKeyword.
+	 */
+	public static List<SearchResult> searchPhrase(String query, SearchIndex index) {
+		if (query == null || query.trim().length() < 3) {
+			throw new IllegalArgumentException("Could not Search, Please Enter at least 3 letter to search");
+		}
+
+		List<SearchResult> results = new ArrayList<>();
+		PositionalMatcher.MatchConsumer collect = (fileId, pageNumber, position, wordCount) -> {
+			StringBuilder words = new StringBuilder();
+			for (String term : PositionalMatcher.terms(index, fileId, pageNumber, position, wordCount)) {
+				words.append(words.length() > 0 ? " " : "").append(term != null ? term : "");
+			}
+			String fileName = index.getFileName(fileId);
+			results.add(new SearchResult(fileId, fileName != null ? fileName : String.valueOf(fileId), pageNumber,
+					words.toString(), position));
+		};
+
+		Matcher near = NEAR.matcher(query.trim());
+		if (near.matches()) {
+			PositionalMatcher.matchNear(index, index.getPostings(TermNormalizer.normalize(near.group(1))),
+					index.getPostings(TermNormalizer.normalize(near.group(3))), Integer.parseInt(near.group(2)), collect);
+			return results;
+		}
+
+		List<String> terms = InvertedIndex.terms(query);
+		List<Postings> phrase = new ArrayList<>();
+		for (String term : terms) {
+			phrase.add(index.getPostings(term));
+		}
+		if (!phrase.isEmpty()) {
+			PositionalMatcher.matchPhrase(index, terms, phrase, collect);
+		}
+		return results;
+	}
+
+	/**
+	 * Every occurrence of the indexed words that match a word once harakat
+	 * and hamza, alef and alef maqsura variants are ignored, allowing one
+	 * edit for words of up to five letters and two for longer ones.
+	 */
+	public static List<SearchResult> searchFuzzy(String word, SearchIndex index, FuzzyTermIndex terms) {
+		if (word == null || word.trim().length() < 3) {
+			throw new IllegalArgumentException("Could not Search, Please Enter at least 3 letter to search");
+		}
+		List<String> queryTerms = InvertedIndex.terms(word);
+		if (queryTerms.size() != 1) {
+			throw new IllegalArgumentException("Fuzzy search takes a single word");
+		}
+
+		List<Postings> parts = new ArrayList<>();
+		for (String term : terms.find(queryTerms.get(0))) {
+			Postings postings = index.getPostings(term);
+			if (postings.size() > 0) {
+				parts.add(postings);
+			}
+		}
+		Postings hits = Postings.merge(parts);
+
+		List<SearchResult> results = new ArrayList<>(hits.size());
+		for (int i = 0; i < hits.size(); i++) {
+			int fileId = hits.fileId(i);
+			String fileName = index.getFileName(fileId);
+			results.add(new SearchResult(fileId, fileName != null ? fileName : String.valueOf(fileId),
+					hits.pageNumber(i), index.getTerm(fileId, hits.pageNumber(i), hits.position(i)), hits.position(i)));
+		}
+		return results;
+	}
+
 }
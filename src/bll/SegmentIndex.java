@@ -0,0 +1,751 @@
+package bll;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dal.Configuration;
+import pl.EditorPO;
+
+/**
+ * Search index kept on disk as immutable, memory-mapped segments, so it is
+ * searchable straight after startup without reading the corpus.
+ *
+ * Added and updated pages go to an in-memory InvertedIndex. It is written out
+ * as a new segment (segment-g-g.seg) once it holds search.index.flushPages
+ * pages, on flush(), or by the maintenance thread every
+ * search.index.flushIntervalMillis, so a segment holds only the pages changed
+ * since the last flush. Every flush gets the next generation g, and a page is
+ * live only in the newest segment that contains it, so updating a page needs
+ * no change to older segments. Deleted files and removed pages are recorded
+ * in catalog.log as tombstones carrying the generation they were removed at,
+ * next to the file names; a tombstone hides the copies in older segments.
+ * When there are more than search.index.maxSegments segments the maintenance
+ * thread merges the search.index.mergeWidth neighbouring segments with the
+ * fewest bytes into segment-min-max.seg, dropping dead pages. Every
+ * page keeps the hash of the content it was indexed from, so pages the
+ * database changed behind the index's back can be found after a restart.
+ *
+ * Only one SegmentIndex may have a directory open at a time: the constructor
+ * locks its index.lock file and fails if another instance or process holds
+ * it, and close() releases it.
+ */
+public class SegmentIndex implements SearchIndex {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final String CATALOG = "catalog.log";
+	private static final String LOCK = "index.lock";
+	private static final byte NAME_RECORD = 'N';
+	private static final byte DELETE_RECORD = 'D';
+	private static final byte PAGE_DELETE_RECORD = 'P';
+
+	private final File directory;
+	private final int flushPages;
+	private final int maxSegments;
+	private final int mergeWidth;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "search-index-maintenance");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	// Oldest generation first; replaced, never modified, so readers can keep a reference
+	private volatile List<IndexSegment> segments = new ArrayList<>();
+	// Generation each file or page was removed at; copies in older segments are dead
+	private final Map<Integer, Long> tombstones = new HashMap<>();
+	private final Map<Long, Long> pageTombstones = new HashMap<>();
+	private final Map<Integer, String> fileNames = new HashMap<>();
+	private InvertedIndex buffer = new InvertedIndex();
+	private long nextGeneration;
+	private FileOutputStream catalogFile;
+	private DataOutputStream catalog;
+	private FileChannel lockChannel;
+	private FileLock directoryLock;
+	private boolean closed = false;
+
+	public SegmentIndex() throws IOException {
+		this(new File(Configuration.getProperty("search.index.dir", "searchindex")),
+				Configuration.getInt("search.index.flushPages", 2000),
+				Configuration.getInt("search.index.maxSegments", 10),
+				Configuration.getInt("search.index.mergeWidth", 4),
+				Configuration.getInt("search.index.flushIntervalMillis", 5000));
+	}
+
+	public SegmentIndex(File directory, int flushPages, int maxSegments, int mergeWidth, long flushIntervalMillis)
+			throws IOException {
+		this.directory = directory;
+		this.flushPages = Math.max(1, flushPages);
+		this.mergeWidth = Math.max(2, mergeWidth);
+		this.maxSegments = Math.max(this.mergeWidth, maxSegments);
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create search index directory " + directory);
+		}
+		lockDirectory();
+		try {
+			open();
+		} catch (IOException | RuntimeException e) {
+			unlockDirectory();
+			throw e;
+		}
+		if (flushIntervalMillis > 0) {
+			maintenance.scheduleWithFixedDelay(this::maintain, flushIntervalMillis, flushIntervalMillis,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void lockDirectory() throws IOException {
+		lockChannel = FileChannel.open(new File(directory, LOCK).toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE);
+		try {
+			directoryLock = lockChannel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			// Held by another SegmentIndex in this JVM
+			directoryLock = null;
+		}
+		if (directoryLock == null) {
+			lockChannel.close();
+			throw new IOException("Search index directory " + directory + " is already in use");
+		}
+	}
+
+	private void unlockDirectory() {
+		try {
+			lockChannel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+	}
+
+	private void open() throws IOException {
+		long start = System.currentTimeMillis();
+		File[] files = directory.listFiles();
+		if (files == null) {
+			files = new File[0];
+		}
+
+		// A merged segment that was renamed into place before its inputs were
+		// deleted covers their generations; the inputs are left over.
+		List<long[]> ranges = new ArrayList<>();
+		for (File file : files) {
+			long[] range = generationsOf(file.getName());
+			if (range != null) {
+				ranges.add(range);
+			} else if (file.getName().endsWith(".tmp")) {
+				file.delete();
+			}
+		}
+		ranges.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+		List<IndexSegment> opened = new ArrayList<>();
+		long coveredUpTo = -1;
+		for (long[] range : ranges) {
+			File file = segmentFile(range[0], range[1]);
+			if (range[0] <= coveredUpTo) {
+				file.delete();
+				continue;
+			}
+			try {
+				opened.add(IndexSegment.open(file));
+				coveredUpTo = range[1];
+			} catch (IOException e) {
+				// Its files no longer match their content hashes, so SearchIndexer re-reads them
+				LOGGER.error("Discarding unreadable search index segment " + file + ": " + e.getMessage());
+				file.delete();
+			}
+		}
+		segments = opened;
+
+		long generation = 0;
+		for (IndexSegment segment : opened) {
+			generation = Math.max(generation, segment.getMaxGeneration());
+		}
+
+		readCatalog(new File(directory, CATALOG));
+		for (long removed : tombstones.values()) {
+			generation = Math.max(generation, removed);
+		}
+		for (long removed : pageTombstones.values()) {
+			generation = Math.max(generation, removed);
+		}
+		nextGeneration = generation + 1;
+
+		rewriteCatalog();
+		LOGGER.info("Opened search index " + directory + " with " + fileNames.size() + " files in "
+				+ opened.size() + " segments in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	@Override
+	public boolean addPage(int fileId, int pageNumber, String content) {
+		String hash = InvertedIndex.contentHash(content);
+		// A re-save of unchanged text would otherwise become a segment of its own at the next flush
+		if (hash.equals(getPageHash(fileId, pageNumber))) {
+			return false;
+		}
+		List<String> terms = InvertedIndex.terms(content);
+		lock.writeLock().lock();
+		try {
+			buffer.addPageTerms(fileId, pageNumber, hash, terms);
+			if (buffer.getPageCount() >= flushPages) {
+				flushLocked();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		return true;
+	}
+
+	/**
+	 * The content hash the live copy of a page was indexed from, or null if
+	 * the page is not indexed.
+	 */
+	private String getPageHash(int fileId, int pageNumber) {
+		lock.readLock().lock();
+		try {
+			if (buffer.hasPage(fileId, pageNumber)) {
+				return buffer.getPageHash(fileId, pageNumber);
+			}
+			List<IndexSegment> current = segments;
+			int at = liveSegment(current, fileId, pageNumber);
+			if (at < 0) {
+				return null;
+			}
+			IndexSegment segment = current.get(at);
+			return segment.pageHash(segment.findPage(fileId, pageNumber));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void removePage(int fileId, int pageNumber) {
+		lock.writeLock().lock();
+		try {
+			buffer.removePage(fileId, pageNumber);
+			if (liveSegment(segments, fileId, pageNumber) >= 0) {
+				long generation = nextGeneration++;
+				pageTombstones.put(pageKey(fileId, pageNumber), generation);
+				appendCatalog(PAGE_DELETE_RECORD, fileId, pageNumber, generation, null);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void removeFile(int fileId) {
+		lock.writeLock().lock();
+		try {
+			buffer.removeFile(fileId);
+			boolean named = fileNames.remove(fileId) != null;
+			if (isOnDisk(fileId) || named) {
+				long generation = nextGeneration++;
+				tombstones.put(fileId, generation);
+				appendCatalog(DELETE_RECORD, fileId, 0, generation, null);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void setFileName(int fileId, String name) {
+		lock.writeLock().lock();
+		try {
+			if (!name.equals(fileNames.put(fileId, name))) {
+				appendCatalog(NAME_RECORD, fileId, 0, 0, name);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public String getFileName(int fileId) {
+		lock.readLock().lock();
+		try {
+			return fileNames.get(fileId);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Set<Integer> getFileIds() {
+		lock.readLock().lock();
+		try {
+			return new HashSet<>(fileNames.keySet());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Postings getPostings(String term) {
+		lock.readLock().lock();
+		try {
+			List<Postings> parts = new ArrayList<>();
+			List<IndexSegment> current = segments;
+			for (int at = 0; at < current.size(); at++) {
+				final int segment = at;
+				Postings part = current.get(at).getPostings(term,
+						(fileId, pageNumber) -> isLive(current, segment, fileId, pageNumber));
+				if (part.size() > 0) {
+					parts.add(part);
+				}
+			}
+			Postings buffered = buffer.getPostings(term);
+			if (buffered.size() > 0) {
+				parts.add(buffered);
+			}
+			return parts.size() == 1 ? parts.get(0) : Postings.merge(parts);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public String getTerm(int fileId, int pageNumber, int position) {
+		lock.readLock().lock();
+		try {
+			if (buffer.hasPage(fileId, pageNumber)) {
+				return buffer.getTerm(fileId, pageNumber, position);
+			}
+			List<IndexSegment> current = segments;
+			int at = liveSegment(current, fileId, pageNumber);
+			if (at < 0) {
+				return null;
+			}
+			IndexSegment segment = current.get(at);
+			return segment.pageTerm(segment.findPage(fileId, pageNumber), position);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public int getPageLength(int fileId, int pageNumber) {
+		lock.readLock().lock();
+		try {
+			if (buffer.hasPage(fileId, pageNumber)) {
+				return buffer.getPageLength(fileId, pageNumber);
+			}
+			List<IndexSegment> current = segments;
+			int at = liveSegment(current, fileId, pageNumber);
+			if (at < 0) {
+				return -1;
+			}
+			IndexSegment segment = current.get(at);
+			return segment.pageLength(segment.findPage(fileId, pageNumber));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Map<Integer, String> getPageHashes(int fileId) {
+		lock.readLock().lock();
+		try {
+			// Oldest segment first, so a newer copy of a page replaces an older one
+			Map<Integer, String> hashes = new HashMap<>();
+			for (IndexSegment segment : segments) {
+				if (!segment.containsFile(fileId)) {
+					continue;
+				}
+				for (int page = segment.lowerBound(fileId, 0); page < segment.getPageCount()
+						&& segment.pageFileId(page) == fileId; page++) {
+					int pageNumber = segment.pageNumber(page);
+					if (!isRemovedAfter(fileId, pageNumber, segment.getMaxGeneration())) {
+						hashes.put(pageNumber, segment.pageHash(page));
+					}
+				}
+			}
+			hashes.putAll(buffer.getPageHashes(fileId));
+			return hashes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void forEachTerm(Consumer<String> consumer) {
+		InvertedIndex buffered;
+		lock.readLock().lock();
+		try {
+			buffered = buffer;
+		} finally {
+			lock.readLock().unlock();
+		}
+		for (IndexSegment segment : segments) {
+			segment.forEachTerm(consumer);
+		}
+		buffered.forEachTerm(consumer);
+	}
+
+	@Override
+	public void flush() {
+		lock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			flushLocked();
+			catalog.flush();
+			catalogFile.getChannel().force(false);
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Flushes, stops the maintenance thread and releases the directory. The
+	 * index must not be changed afterwards.
+	 */
+	@Override
+	public void close() {
+		maintenance.shutdown();
+		try {
+			if (!maintenance.awaitTermination(1, TimeUnit.MINUTES)) {
+				LOGGER.warn("Search index maintenance is still running at close");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		lock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			flushLocked();
+			catalog.flush();
+			catalogFile.getChannel().force(false);
+			catalog.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		} finally {
+			if (!closed) {
+				closed = true;
+				unlockDirectory();
+			}
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	private static long pageKey(int fileId, int pageNumber) {
+		return ((long) fileId << 32) | (pageNumber & 0xFFFFFFFFL);
+	}
+
+	private boolean isRemovedAfter(int fileId, int pageNumber, long generation) {
+		Long fileRemoved = tombstones.get(fileId);
+		Long pageRemoved = pageTombstones.get(pageKey(fileId, pageNumber));
+		return (fileRemoved != null && fileRemoved > generation) || (pageRemoved != null && pageRemoved > generation);
+	}
+
+	/**
+	 * Whether the copy of a page in current.get(at) is the one searches see:
+	 * the page is not buffered, not removed since that segment was written and
+	 * not in any newer segment.
+	 */
+	private boolean isLive(List<IndexSegment> current, int at, int fileId, int pageNumber) {
+		if (buffer.hasPage(fileId, pageNumber)
+				|| isRemovedAfter(fileId, pageNumber, current.get(at).getMaxGeneration())) {
+			return false;
+		}
+		for (int newer = at + 1; newer < current.size(); newer++) {
+			IndexSegment segment = current.get(newer);
+			if (segment.containsFile(fileId) && segment.findPage(fileId, pageNumber) >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Position in current of the segment holding the live on-disk copy of a
+	 * page, or -1 if it has none.
+	 */
+	private int liveSegment(List<IndexSegment> current, int fileId, int pageNumber) {
+		for (int at = current.size() - 1; at >= 0; at--) {
+			IndexSegment segment = current.get(at);
+			if (segment.containsFile(fileId) && segment.findPage(fileId, pageNumber) >= 0) {
+				return isRemovedAfter(fileId, pageNumber, segment.getMaxGeneration()) ? -1 : at;
+			}
+		}
+		return -1;
+	}
+
+	private boolean isOnDisk(int fileId) {
+		for (IndexSegment segment : segments) {
+			if (segment.containsFile(fileId)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void flushLocked() {
+		if (buffer.getPageCount() == 0) {
+			return;
+		}
+		long start = System.currentTimeMillis();
+		long generation = nextGeneration++;
+		SegmentWriter writer = new SegmentWriter();
+		buffer.forEachPage(writer::addPage);
+		try {
+			File file = segmentFile(generation, generation);
+			writer.write(file, generation, generation);
+			IndexSegment segment = IndexSegment.open(file);
+			List<IndexSegment> updated = new ArrayList<>(segments);
+			updated.add(segment);
+			segments = updated;
+			buffer = new InvertedIndex();
+			LOGGER.info("Flushed search index " + segment + " in " + (System.currentTimeMillis() - start) + " ms");
+		} catch (IOException e) {
+			// The buffer is kept and written by a later flush
+			e.printStackTrace();
+			LOGGER.error("Search index flush failed: " + e.getMessage());
+		}
+	}
+
+	private void maintain() {
+		try {
+			lock.writeLock().lock();
+			try {
+				if (closed) {
+					return;
+				}
+				flushLocked();
+				catalog.flush();
+			} finally {
+				lock.writeLock().unlock();
+			}
+			while (segments.size() > maxSegments) {
+				merge();
+			}
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+			LOGGER.error("Search index maintenance failed: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Merges the neighbouring segments with the fewest bytes. Only this thread
+	 * merges and flushes only append, so the chosen segments stay in place;
+	 * pages that die while the merge runs are still dead afterwards because
+	 * their tombstone or newer copy is newer than every input.
+	 */
+	private void merge() throws IOException {
+		long start = System.currentTimeMillis();
+		List<IndexSegment> current = segments;
+		int width = Math.min(mergeWidth, current.size());
+		int first = 0;
+		long smallest = Long.MAX_VALUE;
+		for (int from = 0; from + width <= current.size(); from++) {
+			long bytes = 0;
+			for (int i = from; i < from + width; i++) {
+				bytes += current.get(i).length();
+			}
+			if (bytes < smallest) {
+				smallest = bytes;
+				first = from;
+			}
+		}
+		List<IndexSegment> inputs = new ArrayList<>(current.subList(first, first + width));
+
+		SegmentWriter writer = new SegmentWriter();
+		for (int at = first; at < first + width; at++) {
+			IndexSegment input = current.get(at);
+			for (int page = 0; page < input.getPageCount(); page++) {
+				int fileId = input.pageFileId(page);
+				boolean live;
+				lock.readLock().lock();
+				try {
+					live = isLive(segments, at, fileId, input.pageNumber(page));
+				} finally {
+					lock.readLock().unlock();
+				}
+				if (live) {
+					writer.addPage(fileId, input.pageNumber(page), input.pageHash(page), input.pageTerms(page));
+				}
+			}
+		}
+		long minGeneration = inputs.get(0).getMinGeneration();
+		long maxGeneration = inputs.get(inputs.size() - 1).getMaxGeneration();
+		File file = segmentFile(minGeneration, maxGeneration);
+		writer.write(file, minGeneration, maxGeneration);
+		IndexSegment merged = IndexSegment.open(file);
+
+		lock.writeLock().lock();
+		try {
+			List<IndexSegment> updated = new ArrayList<>(segments);
+			int at = updated.indexOf(inputs.get(0));
+			if (at < 0 || !updated.subList(at, at + width).equals(inputs)) {
+				throw new IllegalStateException("Search index segments changed during merge");
+			}
+			updated.subList(at, at + width).clear();
+			updated.add(at, merged);
+			segments = updated;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		// Best effort: a still-mapped file cannot be deleted on Windows and is removed on the next start.
+		for (IndexSegment input : inputs) {
+			input.getFile().delete();
+		}
+		LOGGER.info("Merged " + width + " search index segments into " + merged + " in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+
+	private void readCatalog(File file) {
+		if (!file.exists()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			while (true) {
+				byte type = in.readByte();
+				int fileId = in.readInt();
+				if (type == NAME_RECORD) {
+					fileNames.put(fileId, in.readUTF());
+				} else if (type == DELETE_RECORD) {
+					tombstones.put(fileId, in.readLong());
+					fileNames.remove(fileId);
+				} else if (type == PAGE_DELETE_RECORD) {
+					int pageNumber = in.readInt();
+					pageTombstones.put(pageKey(fileId, pageNumber), in.readLong());
+				} else {
+					LOGGER.warn("Ignoring the rest of damaged search index catalog " + file);
+					return;
+				}
+			}
+		} catch (EOFException e) {
+			// End of the catalog, or a record torn by a crash mid-write
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+	}
+
+	/**
+	 * Rewrites the catalog with only the current names and the tombstones
+	 * that still hide pages on disk, then appends to it from there.
+	 */
+	private void rewriteCatalog() throws IOException {
+		File target = new File(directory, CATALOG);
+		File temp = new File(directory, CATALOG + ".tmp");
+		Set<Integer> onDisk = new HashSet<>();
+		for (IndexSegment segment : segments) {
+			onDisk.addAll(segment.getFileIds());
+		}
+		try (FileOutputStream file = new FileOutputStream(temp);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+			for (Map.Entry<Integer, String> name : fileNames.entrySet()) {
+				writeRecord(out, NAME_RECORD, name.getKey(), 0, 0, name.getValue());
+			}
+			tombstones.keySet().retainAll(onDisk);
+			for (Map.Entry<Integer, Long> tombstone : tombstones.entrySet()) {
+				writeRecord(out, DELETE_RECORD, tombstone.getKey(), 0, tombstone.getValue(), null);
+			}
+			pageTombstones.keySet().removeIf(key -> !isPageOnDisk((int) (key >>> 32), (int) (long) key));
+			for (Map.Entry<Long, Long> tombstone : pageTombstones.entrySet()) {
+				long key = tombstone.getKey();
+				writeRecord(out, PAGE_DELETE_RECORD, (int) (key >>> 32), (int) key, tombstone.getValue(), null);
+			}
+			out.flush();
+			file.getChannel().force(false);
+		}
+		Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		catalogFile = new FileOutputStream(target, true);
+		catalog = new DataOutputStream(new BufferedOutputStream(catalogFile));
+	}
+
+	private void appendCatalog(byte type, int fileId, int pageNumber, long generation, String name) {
+		try {
+			writeRecord(catalog, type, fileId, pageNumber, generation, name);
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+	}
+
+	private static void writeRecord(DataOutputStream out, byte type, int fileId, int pageNumber, long generation,
+			String name) throws IOException {
+		out.writeByte(type);
+		out.writeInt(fileId);
+		if (type == NAME_RECORD) {
+			out.writeUTF(name);
+			return;
+		}
+		if (type == PAGE_DELETE_RECORD) {
+			out.writeInt(pageNumber);
+		}
+		out.writeLong(generation);
+	}
+
+	private boolean isPageOnDisk(int fileId, int pageNumber) {
+		for (IndexSegment segment : segments) {
+			if (segment.containsFile(fileId) && segment.findPage(fileId, pageNumber) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private File segmentFile(long minGeneration, long maxGeneration) {
+		return new File(directory, "segment-" + minGeneration + "-" + maxGeneration + ".seg");
+	}
+
+	private static long[] generationsOf(String fileName) {
+		if (!fileName.startsWith("segment-") || !fileName.endsWith(".seg")) {
+			return null;
+		}
+		String[] parts = fileName.substring("segment-".length(), fileName.length() - ".seg".length()).split("-");
+		if (parts.length != 2) {
+			return null;
+		}
+		try {
+			return new long[] { Long.parseLong(parts[0]), Long.parseLong(parts[1]) };
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SegmentIndex[files=" + getFileIds().size() + ", segments=" + segments + "]";
+	}
+}
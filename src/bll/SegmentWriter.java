@@ -0,0 +1,240 @@
+package bll;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds one immutable IndexSegment file from the normalized terms of a set
+ * of pages. Layout, with all offsets absolute:
+ *
+ *   header      magic, min and max generation, term count, page count,
+ *               term table offset, page table offset
+ *   postings    per term: varint count, then varint (file, page, position)
+ *               entries, each delta coded against the entry before it
+ *   pages       per page: varint length and UTF-8 bytes of the content hash,
+ *               then varint length and varint term ordinals
+ *   term bytes  UTF-8 terms in unsigned byte order
+ *   term table  term count + 1 entries of (term bytes offset, postings offset)
+ *   page table  page count + 1 entries of (fileId, pageNumber, page terms offset)
+ */
+class SegmentWriter {
+	static final int MAGIC = 0x53494459;
+	static final int HEADER_SIZE = 36;
+
+	private final Map<String, Integer> termIds = new HashMap<>();
+	private final List<String> terms = new ArrayList<>();
+	private final List<long[]> pageKeys = new ArrayList<>();
+	private final List<int[]> sequences = new ArrayList<>();
+	private final List<String> hashes = new ArrayList<>();
+
+	void addPage(int fileId, int pageNumber, String hash, List<String> pageTerms) {
+		int[] sequence = new int[pageTerms.size()];
+		for (int i = 0; i < sequence.length; i++) {
+			String term = pageTerms.get(i);
+			Integer id = termIds.get(term);
+			if (id == null) {
+				id = terms.size();
+				termIds.put(term, id);
+				terms.add(term);
+			}
+			sequence[i] = id;
+		}
+		pageKeys.add(new long[] { fileId, pageNumber, sequences.size() });
+		sequences.add(sequence);
+		hashes.add(hash);
+	}
+
+	int getPageCount() {
+		return sequences.size();
+	}
+
+	/**
+	 * Writes the segment to a temporary file and moves it into place, so a
+	 * file with the final name is always complete.
+	 */
+	void write(File target, long minGeneration, long maxGeneration) throws IOException {
+		int termCount = terms.size();
+		byte[][] termBytes = new byte[termCount][];
+		Integer[] order = new Integer[termCount];
+		for (int i = 0; i < termCount; i++) {
+			termBytes[i] = terms.get(i).getBytes(StandardCharsets.UTF_8);
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> compareBytes(termBytes[a], termBytes[b]));
+		int[] ordinal = new int[termCount];
+		for (int rank = 0; rank < termCount; rank++) {
+			ordinal[order[rank]] = rank;
+		}
+
+		pageKeys.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+		// Encode every term's postings in one pass over the pages in order
+		VarintBuffer[] postings = new VarintBuffer[termCount];
+		int[] counts = new int[termCount];
+		int[] lastFile = new int[termCount];
+		int[] lastPage = new int[termCount];
+		int[] lastPosition = new int[termCount];
+		Arrays.fill(lastFile, -1);
+		for (long[] key : pageKeys) {
+			int fileId = (int) key[0];
+			int pageNumber = (int) key[1];
+			int[] sequence = sequences.get((int) key[2]);
+			for (int position = 0; position < sequence.length; position++) {
+				int term = ordinal[sequence[position]];
+				VarintBuffer buffer = postings[term];
+				if (buffer == null) {
+					buffer = postings[term] = new VarintBuffer();
+				}
+				if (lastFile[term] != fileId) {
+					buffer.write(fileId - lastFile[term]);
+					buffer.write(pageNumber);
+					buffer.write(position);
+				} else if (lastPage[term] != pageNumber) {
+					buffer.write(0);
+					buffer.write(pageNumber - lastPage[term]);
+					buffer.write(position);
+				} else {
+					buffer.write(0);
+					buffer.write(0);
+					buffer.write(position - lastPosition[term]);
+				}
+				lastFile[term] = fileId;
+				lastPage[term] = pageNumber;
+				lastPosition[term] = position;
+				counts[term]++;
+			}
+		}
+
+		File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+		int termTableOffset;
+		int pageTableOffset;
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024))) {
+			out.write(new byte[HEADER_SIZE]);
+
+			int[] postingsOffsets = new int[termCount + 1];
+			VarintBuffer scratch = new VarintBuffer();
+			for (int term = 0; term < termCount; term++) {
+				postingsOffsets[term] = checkedSize(out);
+				scratch.reset();
+				scratch.write(counts[term]);
+				scratch.writeTo(out);
+				postings[term].writeTo(out);
+				postings[term] = null;
+			}
+			postingsOffsets[termCount] = checkedSize(out);
+
+			int[] pageOffsets = new int[pageKeys.size() + 1];
+			for (int page = 0; page < pageKeys.size(); page++) {
+				pageOffsets[page] = checkedSize(out);
+				int[] sequence = sequences.get((int) pageKeys.get(page)[2]);
+				String hash = hashes.get((int) pageKeys.get(page)[2]);
+				byte[] hashBytes = hash == null ? new byte[0] : hash.getBytes(StandardCharsets.UTF_8);
+				scratch.reset();
+				scratch.write(hashBytes.length);
+				scratch.writeTo(out);
+				out.write(hashBytes);
+				scratch.reset();
+				scratch.write(sequence.length);
+				for (int id : sequence) {
+					scratch.write(ordinal[id]);
+				}
+				scratch.writeTo(out);
+			}
+			pageOffsets[pageKeys.size()] = checkedSize(out);
+
+			int[] termOffsets = new int[termCount + 1];
+			for (int rank = 0; rank < termCount; rank++) {
+				termOffsets[rank] = checkedSize(out);
+				out.write(termBytes[order[rank]]);
+			}
+			termOffsets[termCount] = checkedSize(out);
+
+			termTableOffset = checkedSize(out);
+			for (int rank = 0; rank <= termCount; rank++) {
+				out.writeInt(termOffsets[rank]);
+				out.writeInt(postingsOffsets[rank]);
+			}
+			pageTableOffset = checkedSize(out);
+			for (int page = 0; page <= pageKeys.size(); page++) {
+				long[] key = page < pageKeys.size() ? pageKeys.get(page) : new long[] { -1, -1 };
+				out.writeInt((int) key[0]);
+				out.writeInt((int) key[1]);
+				out.writeInt(pageOffsets[page]);
+			}
+			checkedSize(out);
+		}
+
+		try (RandomAccessFile raf = new RandomAccessFile(temp, "rw")) {
+			raf.seek(0);
+			raf.writeInt(MAGIC);
+			raf.writeLong(minGeneration);
+			raf.writeLong(maxGeneration);
+			raf.writeInt(termCount);
+			raf.writeInt(pageKeys.size());
+			raf.writeInt(termTableOffset);
+			raf.writeInt(pageTableOffset);
+			raf.getChannel().force(true);
+		}
+		Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	static int compareBytes(byte[] a, byte[] b) {
+		int length = Math.min(a.length, b.length);
+		for (int i = 0; i < length; i++) {
+			int compare = (a[i] & 0xFF) - (b[i] & 0xFF);
+			if (compare != 0) {
+				return compare;
+			}
+		}
+		return a.length - b.length;
+	}
+
+	private static int checkedSize(DataOutputStream out) throws IOException {
+		// DataOutputStream.size() saturates at Integer.MAX_VALUE
+		if (out.size() == Integer.MAX_VALUE) {
+			throw new IOException("Search index segment exceeds 2 GB");
+		}
+		return out.size();
+	}
+
+	/**
+	 * Growable byte array of unsigned LEB128 varints.
+	 */
+	private static final class VarintBuffer {
+		private byte[] data = new byte[16];
+		private int length;
+
+		void write(int value) {
+			if (length + 5 > data.length) {
+				data = Arrays.copyOf(data, data.length * 2);
+			}
+			while ((value & ~0x7F) != 0) {
+				data[length++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			data[length++] = (byte) value;
+		}
+
+		void reset() {
+			length = 0;
+		}
+
+		void writeTo(DataOutputStream out) throws IOException {
+			out.write(data, 0, length);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package bll;
+
+/**
+ * Reduces a token to the form the search index stores: harakat and tatweel
+ * removed, letters lower-cased and punctuation trimmed from both ends, so
+ * "الكتابُ." and "الكتاب" are the same term.
+ */
+public class TermNormalizer {
+
+	public static String normalize(CharSequence token) {
+		StringBuilder term = new StringBuilder(token.length());
+		for (int i = 0; i < token.length(); i++) {
+			char ch = token.charAt(i);
+			if (!isIgnorable(ch)) {
+				term.append(Character.toLowerCase(ch));
+			}
+		}
+
+		int start = 0;
+		int end = term.length();
+		while (start < end && !Character.isLetterOrDigit(term.charAt(start))) {
+			start++;
+		}
+		while (end > start && !Character.isLetterOrDigit(term.charAt(end - 1))) {
+			end--;
+		}
+		return term.substring(start, end);
+	}
+
+	/**
+	 * Folds spelling variants of a normalized term together for fuzzy
+	 * matching: hamza and madda forms of alef become bare alef, hamza on waw
+	 * or ya becomes the bare letter, and alef maqsura becomes ya.
+	 */
+	public static String fold(String term) {
+		char[] folded = term.toCharArray();
+		for (int i = 0; i < folded.length; i++) {
+			switch (folded[i]) {
+			case 'أ':
+			case 'إ':
+			case 'آ':
+			case 'ٱ':
+				folded[i] = 'ا';
+				break;
+			case 'ؤ':
+				folded[i] = 'و';
+				break;
+			case 'ئ':
+			case 'ى':
+				folded[i] = 'ي';
+				break;
+			default:
+				break;
+			}
+		}
+		return new String(folded);
+	}
+
+	// Harakat, Quranic marks and superscript alef, plus tatweel
+	private static boolean isIgnorable(char ch) {
+		return (ch >= 'ً' && ch <= 'ٟ') || ch == 'ٰ' || ch == 'ـ';
+	}
+}
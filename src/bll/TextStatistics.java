@@ -0,0 +1,29 @@
+package bll;
+
+import dal.ArabicTokenizer;
+
+public class TextStatistics {
+
+	public static int wordCount(String text) {
+		if (text == null) {
+			return 0;
+		}
+		return ArabicTokenizer.count(text);
+	}
+
+	public static double averageWordLength(String text) {
+		if (text == null) {
+			return 0;
+		}
+
+		ArabicTokenizer words = new ArabicTokenizer(text);
+		int totalLength = 0;
+		int wordCount = 0;
+		while (words.next()) {
+			totalLength += words.length();
+			wordCount++;
+		}
+
+		return wordCount == 0 ? 0 : (double) totalLength / wordCount;
+	}
+}
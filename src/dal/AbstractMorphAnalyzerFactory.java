@@ -0,0 +1,25 @@
+package dal;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+public abstract class AbstractMorphAnalyzerFactory {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	// Named as a string, like db.type, so dal never links against the AlKhalil adapter at compile time.
+	static final String DEFAULT_ANALYZER = "dal.AlKhalilMorphAnalyzer";
+
+	public static final MorphAnalyzer createAnalyzer() {
+		String analyzerClassName = Configuration.getProperty("analyzer.type", DEFAULT_ANALYZER);
+		try {
+			Class<?> clazz = Class.forName(analyzerClassName); // Load class by name
+			return (MorphAnalyzer) clazz.getDeclaredConstructor().newInstance(); // Instantiate class
+		} catch (Exception | LinkageError e) {
+			e.printStackTrace();
+			LOGGER.error("Failed to create analyzer " + analyzerClassName + ": " + e);
+			return null;
+		}
+	}
+}
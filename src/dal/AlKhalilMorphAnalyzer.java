@@ -0,0 +1,103 @@
+package dal;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import dto.WordAnalysis;
+
+/**
+ * Adapter for the AlKhalil2 analyzer. AlKhalil is reached through reflection
+ * so that the rest of the tree compiles and runs without its jar on the
+ * classpath; a missing jar only fails when this analyzer is selected.
+ */
+public class AlKhalilMorphAnalyzer implements MorphAnalyzer {
+	private static final String ANALYZER_CLASS = "net.oujda_nlp_team.AlKhalil2Analyzer";
+	private static final String RESULT_LIST_CLASS = "net.oujda_nlp_team.entity.ResultList";
+	private static final String RESULT_CLASS = "net.oujda_nlp_team.entity.Result";
+
+	private final Object analyzer;
+	private final Method processToken;
+	private final Method getAllLemmasString;
+	private final Method getAllRootString;
+	private final Method getAllStemString;
+	private final Method getAllResults;
+	private final Method getPartOfSpeech;
+	private final Method getStem;
+
+	public AlKhalilMorphAnalyzer() {
+		try {
+			Class<?> analyzerClass = Class.forName(ANALYZER_CLASS);
+			Class<?> resultListClass = Class.forName(RESULT_LIST_CLASS);
+			Class<?> resultClass = Class.forName(RESULT_CLASS);
+			analyzer = analyzerClass.getMethod("getInstance").invoke(null);
+			processToken = analyzerClass.getMethod("processToken", String.class);
+			getAllLemmasString = resultListClass.getMethod("getAllLemmasString");
+			getAllRootString = resultListClass.getMethod("getAllRootString");
+			getAllStemString = resultListClass.getMethod("getAllStemString");
+			getAllResults = resultListClass.getMethod("getAllResults");
+			getPartOfSpeech = resultClass.getMethod("getPartOfSpeech");
+			getStem = resultClass.getMethod("getStem");
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Failed to initialize AlKhalil2Analyzer.", e);
+		}
+		if (analyzer == null) {
+			throw new IllegalStateException("Failed to initialize AlKhalil2Analyzer.");
+		}
+	}
+
+	@Override
+	public WordAnalysis analyze(String token) {
+		Object resultList;
+		// Every adapter wraps the same AlKhalil singleton, which has no thread-safety guarantee.
+		synchronized (analyzer) {
+			resultList = invoke(processToken, analyzer, token);
+		}
+
+		String lemma = normalizedOrNotFound((String) invoke(getAllLemmasString, resultList));
+		String root = normalizedOrNotFound((String) invoke(getAllRootString, resultList));
+		String stem = normalizedOrNotFound((String) invoke(getAllStemString, resultList));
+
+		List<String> posTags = new ArrayList<>();
+		String segment;
+		List<?> results = (List<?>) invoke(getAllResults, resultList);
+
+		if (results != null && !results.isEmpty()) {
+			Object firstResult = results.get(0);
+			posTags.addAll(Arrays.asList(((String) invoke(getPartOfSpeech, firstResult)).split("\\|")));
+			segment = WordSegmentation.buildSegment(token, (String) invoke(getStem, firstResult));
+		} else {
+			posTags.add(MorphologyEngine.NONE);
+			segment = MorphologyEngine.NONE;
+		}
+
+		return new WordAnalysis(token, lemma, root, stem, Collections.unmodifiableList(posTags), segment);
+	}
+
+	private static Object invoke(Method method, Object target, Object... args) {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("AlKhalil2Analyzer failed: " + cause, cause);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("AlKhalil2Analyzer is not accessible: " + e, e);
+		}
+	}
+
+	private static String normalizedOrNotFound(String value) {
+		if (value != null && !value.isEmpty()) {
+			return PreProcessText.preprocessText(value);
+		}
+		return MorphologyEngine.NOT_FOUND;
+	}
+}
@@ -0,0 +1,206 @@
+package dal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+/**
+ * Collects (pageId, word, value) rows for the analysis tables across pages
+ * and writes each table with as few statements as possible. Rows go out as
+ * multi-row INSERTs whose size stays under db.bulk.maxStatementBytes; a table
+ * with at least db.bulk.loadDataMinRows rows is streamed with LOAD DATA LOCAL
+ * INFILE instead, which needs allowLocalInfile=true on db.url and local_infile
+ * enabled on the server. Runs on the caller's connection and transaction.
+ */
+public class AnalysisBulkWriter {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final int PARAMS_PER_ROW = 3;
+	private static final int MAX_PARAMS = 65535;
+	private static final int ROW_OVERHEAD_BYTES = 16;
+
+	private final Connection conn;
+	private final int maxStatementBytes;
+	private final int loadDataMinRows;
+	private final Map<String, TableRows> tables = new LinkedHashMap<>();
+
+	public AnalysisBulkWriter(Connection conn) {
+		this.conn = conn;
+		this.maxStatementBytes = Math.max(1024, Configuration.getInt("db.bulk.maxStatementBytes", 1 << 20));
+		this.loadDataMinRows = Configuration.getInt("db.bulk.loadDataMinRows", 0);
+	}
+
+	public void addRows(String table, String column, int pageId, Map<String, ?> values) {
+		TableRows rows = tables.computeIfAbsent(table, name -> new TableRows(name, column));
+		for (Map.Entry<String, ?> entry : values.entrySet()) {
+			rows.add(pageId, entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Writes every buffered row and logs the rate achieved per table.
+	 */
+	public void flush() throws SQLException {
+		StringBuilder report = new StringBuilder("Bulk wrote");
+		boolean wrote = false;
+		for (TableRows rows : tables.values()) {
+			if (rows.size() == 0) {
+				continue;
+			}
+			long start = System.nanoTime();
+			boolean loadData = loadDataMinRows > 0 && rows.size() >= loadDataMinRows;
+			if (loadData) {
+				loadData(rows);
+			} else {
+				insert(rows);
+			}
+			long micros = Math.max(1, (System.nanoTime() - start) / 1000);
+			report.append(String.format(" %s=%d rows in %.1f ms (%d rows/s%s)", rows.table, rows.size(), micros / 1000.0,
+					rows.size() * 1000000L / micros, loadData ? ", load data" : ""));
+			rows.clear();
+			wrote = true;
+		}
+		if (wrote) {
+			LOGGER.info(report);
+		}
+	}
+
+	private void insert(TableRows rows) throws SQLException {
+		int maxRows = MAX_PARAMS / PARAMS_PER_ROW;
+		int from = 0;
+		while (from < rows.size()) {
+			int to = from;
+			long bytes = 0;
+			while (to < rows.size() && to - from < maxRows && (to == from || bytes + rows.bytes(to) <= maxStatementBytes)) {
+				bytes += rows.bytes(to);
+				to++;
+			}
+
+			StringBuilder query = new StringBuilder("INSERT INTO ").append(rows.table).append(" (pageId, word, ")
+					.append(rows.column).append(") VALUES ");
+			for (int i = from; i < to; i++) {
+				query.append(i == from ? "(?, ?, ?)" : ", (?, ?, ?)");
+			}
+
+			// The row count, and so the SQL, differs per chunk: keep it out of the pool's statement cache
+			try (PreparedStatement stmt = conn.prepareStatement(query.toString(), ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY)) {
+				int param = 1;
+				for (int i = from; i < to; i++) {
+					stmt.setInt(param++, rows.pageIds.get(i));
+					stmt.setString(param++, rows.words.get(i));
+					stmt.setObject(param++, rows.values.get(i));
+				}
+				stmt.executeUpdate();
+			}
+			from = to;
+		}
+	}
+
+	private void loadData(TableRows rows) throws SQLException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, rows.totalBytes));
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < rows.size(); i++) {
+			line.setLength(0);
+			line.append(rows.pageIds.get(i)).append('\t');
+			appendField(line, rows.words.get(i));
+			line.append('\t');
+			appendField(line, rows.values.get(i));
+			line.append('\n');
+			byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+			buffer.write(bytes, 0, bytes.length);
+		}
+
+		try (Statement stmt = conn.createStatement()) {
+			stmt.unwrap(org.mariadb.jdbc.Statement.class)
+					.setLocalInfileInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+			stmt.execute("LOAD DATA LOCAL INFILE 'analysis.tsv' INTO TABLE " + rows.table
+					+ " CHARACTER SET utf8mb4 (pageId, word, " + rows.column + ")");
+		}
+	}
+
+	// Default LOAD DATA format: tab separated, backslash escapes, \N for NULL
+	private static void appendField(StringBuilder line, Object value) {
+		if (value == null) {
+			line.append("\\N");
+			return;
+		}
+		String text = value.toString();
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			switch (ch) {
+			case '\\':
+				line.append("\\\\");
+				break;
+			case '\t':
+				line.append("\\t");
+				break;
+			case '\n':
+				line.append("\\n");
+				break;
+			case '\r':
+				line.append("\\r");
+				break;
+			case '\0':
+				line.append("\\0");
+				break;
+			default:
+				line.append(ch);
+			}
+		}
+	}
+
+	private static class TableRows {
+		private final String table;
+		private final String column;
+		private final List<Integer> pageIds = new ArrayList<>();
+		private final List<String> words = new ArrayList<>();
+		private final List<Object> values = new ArrayList<>();
+		private final List<Integer> sizes = new ArrayList<>();
+		private long totalBytes;
+
+		TableRows(String table, String column) {
+			this.table = table;
+			this.column = column;
+		}
+
+		void add(int pageId, String word, Object value) {
+			// Worst case UTF-8 size of the row as the driver will send it
+			int bytes = ROW_OVERHEAD_BYTES + word.length() * 3 + (value == null ? 4 : value.toString().length() * 3);
+			pageIds.add(pageId);
+			words.add(word);
+			values.add(value);
+			sizes.add(bytes);
+			totalBytes += bytes;
+		}
+
+		int size() {
+			return words.size();
+		}
+
+		int bytes(int index) {
+			return sizes.get(index);
+		}
+
+		void clear() {
+			pageIds.clear();
+			words.clear();
+			values.clear();
+			sizes.clear();
+			totalBytes = 0;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package dal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import dto.WordAnalysis;
+
+/**
+ * Size-bounded token analysis cache using segmented LRU. New entries go to a
+ * probation segment and are promoted to the protected segment on their second
+ * hit, so a burst of one-off tokens cannot flush the frequent vocabulary.
+ */
+public class AnalysisCache {
+	private final int maxSize;
+	private final int protectedMaxSize;
+	private final LinkedHashMap<String, WordAnalysis> probation = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<String, WordAnalysis> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public AnalysisCache(int maxSize) {
+		this.maxSize = Math.max(1, maxSize);
+		this.protectedMaxSize = (int) (this.maxSize * 0.8);
+	}
+
+	public synchronized WordAnalysis get(String token) {
+		WordAnalysis analysis = protectedSegment.get(token);
+		if (analysis != null) {
+			hits.increment();
+			return analysis;
+		}
+
+		analysis = probation.remove(token);
+		if (analysis == null) {
+			misses.increment();
+			return null;
+		}
+
+		hits.increment();
+		protectedSegment.put(token, analysis);
+		if (protectedSegment.size() > protectedMaxSize) {
+			// Demote the least recently used protected entry back to probation.
+			Iterator<Map.Entry<String, WordAnalysis>> eldest = protectedSegment.entrySet().iterator();
+			Map.Entry<String, WordAnalysis> entry = eldest.next();
+			eldest.remove();
+			probation.put(entry.getKey(), entry.getValue());
+		}
+		return analysis;
+	}
+
+	public synchronized void put(String token, WordAnalysis analysis) {
+		if (protectedSegment.containsKey(token)) {
+			protectedSegment.put(token, analysis);
+			return;
+		}
+		probation.put(token, analysis);
+
+		while (probation.size() + protectedSegment.size() > maxSize) {
+			LinkedHashMap<String, WordAnalysis> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+			Iterator<String> eldest = victimSegment.keySet().iterator();
+			eldest.next();
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	public synchronized int size() {
+		return probation.size() + protectedSegment.size();
+	}
+
+	public synchronized void clear() {
+		probation.clear();
+		protectedSegment.clear();
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0.0 : (double) hitCount / total;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("AnalysisCache[size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.2f%%]", size(),
+				getHitCount(), getMissCount(), getEvictionCount(), getHitRate() * 100);
+	}
+}
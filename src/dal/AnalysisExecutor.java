@@ -0,0 +1,71 @@
+package dal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.Pages;
+import pl.EditorPO;
+
+/**
+ * Fixed pool that analyzes the pages of a document in parallel. The pool size
+ * comes from analysis.parallelism in config.properties and defaults to the
+ * number of available cores.
+ */
+public class AnalysisExecutor {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static AnalysisExecutor instance;
+
+	private final ExecutorService pool;
+	private final int parallelism;
+
+	private AnalysisExecutor(int parallelism) {
+		this.parallelism = parallelism;
+		final AtomicInteger threadNumber = new AtomicInteger(1);
+		this.pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "page-analysis-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public static synchronized AnalysisExecutor getInstance() {
+		if (instance == null) {
+			int parallelism = Configuration.getInt("analysis.parallelism",
+					Runtime.getRuntime().availableProcessors());
+			instance = new AnalysisExecutor(Math.max(1, parallelism));
+		}
+		return instance;
+	}
+
+	public List<PageAnalysis> analyzePages(List<Pages> pages) throws InterruptedException, ExecutionException {
+		long start = System.currentTimeMillis();
+		List<Future<PageAnalysis>> futures = new ArrayList<>(pages.size());
+		for (Pages page : pages) {
+			final String content = page.getPageContent();
+			futures.add(pool.submit(() -> PageAnalysis.analyze(content)));
+		}
+
+		List<PageAnalysis> analyses = new ArrayList<>(pages.size());
+		try {
+			for (Future<PageAnalysis> future : futures) {
+				analyses.add(future.get());
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			for (Future<PageAnalysis> future : futures) {
+				future.cancel(true);
+			}
+			throw e;
+		}
+		LOGGER.info("Analyzed " + pages.size() + " pages on " + parallelism + " threads in "
+				+ (System.currentTimeMillis() - start) + " ms");
+		return analyses;
+	}
+}
@@ -0,0 +1,108 @@
+package dal;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import dto.Pages;
+
+/**
+ * A new file with everything createFileInDB stores for it already computed:
+ * its pages, their fingerprints and analyses, and the file's terms. Built
+ * before any connection is borrowed, so the write transaction only inserts
+ * rows. The text is read page by page and never joined into one String.
+ */
+public class AnalyzedDocument {
+	private final String fileName;
+	private final String fileHash;
+	private final Map<String, Integer> termCounts;
+	private final List<Pages> pages;
+	private final List<PageFingerprint> fingerprints;
+	private final List<PageAnalysis> analyses;
+	private final Set<String> terms;
+	private final long analysisMillis;
+
+	private AnalyzedDocument(String fileName, String fileHash, Map<String, Integer> termCounts, List<Pages> pages,
+			List<PageFingerprint> fingerprints, List<PageAnalysis> analyses, Set<String> terms, long analysisMillis) {
+		this.fileName = fileName;
+		this.fileHash = fileHash;
+		this.termCounts = Collections.unmodifiableMap(termCounts);
+		this.pages = Collections.unmodifiableList(pages);
+		this.fingerprints = Collections.unmodifiableList(fingerprints);
+		this.analyses = Collections.unmodifiableList(analyses);
+		this.terms = Collections.unmodifiableSet(terms);
+		this.analysisMillis = analysisMillis;
+	}
+
+	public static AnalyzedDocument analyze(String fileName, String content) throws Exception {
+		return analyze(fileName, new StringReader(content));
+	}
+
+	public static AnalyzedDocument analyze(String fileName, Reader content) throws Exception {
+		long start = System.currentTimeMillis();
+		// Pages never split a surrogate pair, so hashing them in turn hashes the whole text
+		MessageDigest digest = MessageDigest.getInstance("MD5");
+		List<Pages> pages = new ArrayList<>();
+		List<PageFingerprint> fingerprints = new ArrayList<>();
+		Set<String> terms = new HashSet<>();
+		Map<String, Integer> termCounts = new HashMap<>();
+
+		Paginator paginator = new Paginator(content);
+		while (paginator.hasNext()) {
+			Pages page = paginator.next();
+			digest.update(page.getPageContent().getBytes(StandardCharsets.UTF_8));
+			pages.add(page);
+			fingerprints.add(PageFingerprint.of(page.getPageContent()));
+			terms.addAll(DocumentFrequencyIndex.termsOf(page.getPageContent()));
+			TFIDFCalculator.countTerms(page.getPageContent(), termCounts);
+		}
+
+		List<PageAnalysis> analyses = AnalysisExecutor.getInstance().analyzePages(pages);
+		return new AnalyzedDocument(fileName, HashCalculator.bytesToHex(digest.digest()), termCounts, pages,
+				fingerprints, analyses, terms, System.currentTimeMillis() - start);
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public String getFileHash() {
+		return fileHash;
+	}
+
+	public Map<String, Integer> getTermCounts() {
+		return termCounts;
+	}
+
+	public int getPageCount() {
+		return pages.size();
+	}
+
+	public Pages getPage(int index) {
+		return pages.get(index);
+	}
+
+	public PageFingerprint getFingerprint(int index) {
+		return fingerprints.get(index);
+	}
+
+	public PageAnalysis getAnalysis(int index) {
+		return analyses.get(index);
+	}
+
+	public Set<String> getTerms() {
+		return terms;
+	}
+
+	public long getAnalysisMillis() {
+		return analysisMillis;
+	}
+}
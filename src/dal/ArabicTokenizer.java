@@ -0,0 +1,110 @@
+package dal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Walks a text once and reports each whitespace-delimited token as a
+ * start/end offset pair, so callers that only count, compare or hash tokens
+ * never build substrings. Whitespace is what {@code \s} matches in a regex.
+ * Unlike {@code split("\\s+")}, leading whitespace and empty text produce no
+ * empty token.
+ *
+ * <pre>
+ * ArabicTokenizer tokens = new ArabicTokenizer(text);
+ * while (tokens.next()) {
+ * 	use(tokens.start(), tokens.end());
+ * }
+ * </pre>
+ */
+public class ArabicTokenizer {
+	private final CharSequence text;
+	private final int length;
+	private int start;
+	private int end;
+
+	public ArabicTokenizer(CharSequence text) {
+		this.text = text;
+		this.length = text.length();
+	}
+
+	public static boolean isWhitespace(char ch) {
+		return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
+	}
+
+	/** Moves to the next token and returns false once the text is exhausted. */
+	public boolean next() {
+		int position = end;
+		while (position < length && isWhitespace(text.charAt(position))) {
+			position++;
+		}
+		if (position == length) {
+			start = end = length;
+			return false;
+		}
+
+		start = position;
+		while (position < length && !isWhitespace(text.charAt(position))) {
+			position++;
+		}
+		end = position;
+		return true;
+	}
+
+	public int start() {
+		return start;
+	}
+
+	public int end() {
+		return end;
+	}
+
+	public int length() {
+		return end - start;
+	}
+
+	public String token() {
+		return text.subSequence(start, end).toString();
+	}
+
+	public boolean tokenEquals(CharSequence other, boolean ignoreCase) {
+		if (other.length() != end - start) {
+			return false;
+		}
+		for (int i = 0; i < other.length(); i++) {
+			char a = text.charAt(start + i);
+			char b = other.charAt(i);
+			if (a != b && (!ignoreCase || Character.toLowerCase(a) != Character.toLowerCase(b))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Hash of the current token, equal to {@code token().hashCode()}. */
+	public int tokenHash() {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + text.charAt(i);
+		}
+		return hash;
+	}
+
+	public static int count(CharSequence text) {
+		ArabicTokenizer tokens = new ArabicTokenizer(text);
+		int count = 0;
+		while (tokens.next()) {
+			count++;
+		}
+		return count;
+	}
+
+	public static List<String> tokens(CharSequence text) {
+		List<String> result = new ArrayList<>();
+		ArabicTokenizer tokens = new ArabicTokenizer(text);
+		while (tokens.next()) {
+			result.add(tokens.token());
+		}
+		return result;
+	}
+}
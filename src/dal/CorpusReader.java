@@ -0,0 +1,67 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Streams stored pages ordered by (fileId, pageNumber) on a connection of its
+ * own, db.corpus.fetchSize rows at a time, so corpus-wide passes hold one
+ * page in memory instead of the whole corpus. The consumer may write through
+ * another connection while the stream is open.
+ */
+public class CorpusReader {
+	private static final String PAGE_COLUMNS = "SELECT p.fileId, p.pageNumber, p.pageContent FROM pages p";
+	private static final String HASH_COLUMNS = "SELECT p.fileId, p.pageNumber, p.contentHash FROM pages p";
+	private static final String ORDER = " ORDER BY p.fileId, p.pageNumber";
+
+	private final int fetchSize;
+
+	public interface PageConsumer {
+		void accept(int fileId, int pageNumber, String content) throws SQLException;
+	}
+
+	public CorpusReader() {
+		this.fetchSize = Math.max(1, Configuration.getInt("db.corpus.fetchSize", 100));
+	}
+
+	/**
+	 * Feeds every page of every file to the consumer. Returns the number of
+	 * pages read.
+	 */
+	public int forEachPage(PageConsumer consumer) throws SQLException {
+		return stream(PAGE_COLUMNS + ORDER, consumer);
+	}
+
+	/**
+	 * Feeds the contentHash of every page in place of its content, null for
+	 * pages stored before hashes were kept. The page text is not read.
+	 */
+	public int forEachPageHash(PageConsumer consumer) throws SQLException {
+		return stream(HASH_COLUMNS + ORDER, consumer);
+	}
+
+	/**
+	 * Feeds the pages of files that have no rows in fileterms yet.
+	 */
+	int forEachUnindexedPage(PageConsumer consumer) throws SQLException {
+		return stream(PAGE_COLUMNS + " WHERE NOT EXISTS (SELECT 1 FROM fileterms t WHERE t.fileId = p.fileId)" + ORDER,
+				consumer);
+	}
+
+	private int stream(String query, PageConsumer consumer) throws SQLException {
+		int count = 0;
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection();
+				PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setFetchSize(fetchSize);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					consumer.accept(rs.getInt(1), rs.getInt(2), rs.getString(3));
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+}
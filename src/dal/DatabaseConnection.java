@@ -3,37 +3,77 @@ package dal;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Properties;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import pl.EditorPO;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-
+/**
+ * Bounded pool of MariaDB connections. getConnection() borrows a connection
+ * for one operation; closing it returns it to the pool. Idle connections are
+ * validated before reuse and evicted after db.pool.idleTimeoutMillis, and
+ * every connection is retired after db.pool.maxLifetimeMillis.
+ */
 public class DatabaseConnection {
     private static DatabaseConnection INSTANCE;
-    private Connection connection;
     private String url;
     private String username;
     private String password;
     final Logger LOGGER = LogManager.getLogger(EditorPO.class);
 
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long validationIntervalMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private int generation = 0;
+    private int openCount = 0;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder retiredCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
     private DatabaseConnection() {
-        try {
-            FileInputStream propertiesInput = new FileInputStream("config.properties");
-            Properties properties = new Properties();
-            properties.load(propertiesInput);
-            url = properties.getProperty("db.url");
-            username = properties.getProperty("db.username");
-            password = properties.getProperty("db.password");
-            connection = DriverManager.getConnection(url, username, password);
-        } catch (IOException | SQLException e) {
-            e.printStackTrace();
-            LOGGER.error(e.getMessage());
-        }
+        url = Configuration.getProperty("db.url", null);
+        username = Configuration.getProperty("db.username", null);
+        password = Configuration.getProperty("db.password", null);
+
+        maxSize = Math.max(1, Configuration.getInt("db.pool.maxSize", 8));
+        maxWaitMillis = Configuration.getInt("db.pool.maxWaitMillis", 30000);
+        idleTimeoutMillis = Configuration.getInt("db.pool.idleTimeoutMillis", 600000);
+        maxLifetimeMillis = Configuration.getInt("db.pool.maxLifetimeMillis", 1800000);
+        validationIntervalMillis = Configuration.getInt("db.pool.validationIntervalMillis", 5000);
+        validationTimeoutSeconds = Configuration.getInt("db.pool.validationTimeoutSeconds", 2);
+        statementCacheSize = Configuration.getInt("db.pool.statementCacheSize", 64);
+        permits = new Semaphore(maxSize, true);
+
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Configuration.getInt("db.pool.evictionIntervalMillis", 30000);
+        evictor.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
     }
 
     public static synchronized DatabaseConnection getInstance() {
@@ -43,18 +83,193 @@ public class DatabaseConnection {
         return INSTANCE;
     }
 
+    /**
+     * Borrows a connection, waiting up to db.pool.maxWaitMillis for a free
+     * slot. The caller must close it to give it back.
+     */
+    public Connection borrowConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLException("Timed out after " + maxWaitMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection connection;
+            while ((connection = takeIdle()) != null) {
+                if (isUsable(connection)) {
+                    borrowCount.increment();
+                    return connection.lease();
+                }
+                retire(connection);
+            }
+
+            connection = open();
+            borrowCount.increment();
+            return connection.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Same as borrowConnection but logs and returns null when the database is
+     * unavailable. The returned connection must be closed.
+     */
     public Connection getConnection() {
-        return connection;
+        try {
+            return borrowConnection();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            LOGGER.error(e.getMessage());
+            return null;
+        }
     }
 
+    /**
+     * Closes every idle connection. Borrowed connections are closed as they
+     * come back, and later borrows open fresh ones.
+     */
     public void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
-                LOGGER.error(e.getMessage());
+        List<PooledConnection> closing;
+        synchronized (this) {
+            generation++;
+            closing = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (PooledConnection connection : closing) {
+            retire(connection);
+        }
+        LOGGER.info("Database pool drained: " + this);
+    }
+
+    void release(PooledConnection connection) {
+        try {
+            boolean reusable = connection.reset() && !isExpired(connection, System.currentTimeMillis());
+            synchronized (this) {
+                reusable &= connection.getGeneration() == generation;
+                if (reusable) {
+                    idle.push(connection);
+                }
             }
+            if (!reusable) {
+                retire(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private synchronized PooledConnection takeIdle() {
+        return idle.poll();
+    }
+
+    private boolean isUsable(PooledConnection connection) {
+        long now = System.currentTimeMillis();
+        if (isExpired(connection, now)) {
+            return false;
         }
+        if (now - connection.getLastReleasedAt() < validationIntervalMillis) {
+            return true;
+        }
+        return connection.isValid(validationTimeoutSeconds);
+    }
+
+    private boolean isExpired(PooledConnection connection, long now) {
+        return now - connection.getCreatedAt() >= maxLifetimeMillis
+                || now - connection.getLastReleasedAt() >= idleTimeoutMillis;
+    }
+
+    private PooledConnection open() throws SQLException {
+        if (url == null) {
+            throw new SQLException("db.url is not configured");
+        }
+        Connection physical = DriverManager.getConnection(url, username, password);
+        int currentGeneration;
+        synchronized (this) {
+            openCount++;
+            currentGeneration = generation;
+        }
+        createdCount.increment();
+        return new PooledConnection(this, physical, currentGeneration, statementCacheSize);
+    }
+
+    private void retire(PooledConnection connection) {
+        connection.closePhysical();
+        synchronized (this) {
+            openCount--;
+        }
+        retiredCount.increment();
+    }
+
+    private void evictIdle() {
+        List<PooledConnection> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            // Least recently used connections sit at the tail
+            Iterator<PooledConnection> iterator = idle.descendingIterator();
+            while (iterator.hasNext()) {
+                PooledConnection connection = iterator.next();
+                if (isExpired(connection, now)) {
+                    iterator.remove();
+                    expired.add(connection);
+                }
+            }
+        }
+        for (PooledConnection connection : expired) {
+            retire(connection);
+        }
+        if (!expired.isEmpty()) {
+            LOGGER.info("Evicted " + expired.size() + " idle database connections: " + this);
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public synchronized int getOpenCount() {
+        return openCount;
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.sum();
+        return borrows == 0 ? 0 : totalWaitNanos.sum() / 1e6 / borrows;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "DatabaseConnection[active=%d, idle=%d, open=%d/%d, borrows=%d, timeouts=%d, created=%d, retired=%d, avgWait=%.2fms, maxWait=%.2fms]",
+                getActiveCount(), getIdleCount(), getOpenCount(), maxSize, getBorrowCount(), getTimeoutCount(),
+                createdCount.sum(), retiredCount.sum(), getAverageWaitMillis(), getMaxWaitMillis());
     }
-}
\ No newline at end of file
+}
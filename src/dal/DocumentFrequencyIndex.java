@@ -0,0 +1,242 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+/**
+ * Keeps the document frequency of every term in the documentfrequency table
+ * and the distinct terms of each file in fileterms, so TF-IDF can be scored
+ * from the terms of one document instead of re-reading the corpus. All
+ * methods except backfill run on the caller's connection and transaction.
+ */
+public class DocumentFrequencyIndex {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final int MAX_TERM_LENGTH = 255;
+	private static final int LOOKUP_CHUNK = 500;
+
+	private volatile boolean backfilled = false;
+
+	public static Set<String> termsOf(String content) {
+		Set<String> terms = new HashSet<>();
+		ArabicTokenizer tokens = new ArabicTokenizer(PreProcessText.preprocessText(content));
+		while (tokens.next()) {
+			if (tokens.length() <= MAX_TERM_LENGTH) {
+				terms.add(tokens.token());
+			}
+		}
+		return terms;
+	}
+
+	public double score(Connection conn, String document) throws SQLException {
+		return score(conn, TFIDFCalculator.countTerms(document, new HashMap<>()));
+	}
+
+	public double score(Connection conn, Map<String, Integer> termCounts) throws SQLException {
+		Map<String, Integer> df = documentFrequencies(conn, termCounts.keySet());
+		return TFIDFCalculator.calculateDocumentTfIdf(termCounts, df, totalDocuments(conn));
+	}
+
+	/**
+	 * Makes the stored terms of a file equal to the given set, adjusting df
+	 * only for the terms that were added or removed.
+	 */
+	public void replaceFileTerms(Connection conn, int fileId, Set<String> terms) throws SQLException {
+		Set<String> stored = new HashSet<>();
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT term FROM fileterms WHERE fileId = ?")) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					stored.add(rs.getString("term"));
+				}
+			}
+		}
+
+		List<String> removed = new ArrayList<>();
+		for (String term : stored) {
+			if (!terms.contains(term)) {
+				removed.add(term);
+			}
+		}
+		List<String> added = new ArrayList<>();
+		for (String term : terms) {
+			if (!stored.contains(term)) {
+				added.add(term);
+			}
+		}
+
+		// A fixed order keeps concurrent saves from locking df rows in opposite orders
+		Collections.sort(removed);
+		Collections.sort(added);
+
+		if (!removed.isEmpty()) {
+			// Dropped terms are deleted by primary key, so only their rows are locked
+			try (PreparedStatement dfStmt = conn
+					.prepareStatement("UPDATE documentfrequency SET df = df - 1 WHERE term = ?");
+					PreparedStatement dropStmt = conn
+							.prepareStatement("DELETE FROM documentfrequency WHERE term = ? AND df <= 0");
+					PreparedStatement termStmt = conn
+							.prepareStatement("DELETE FROM fileterms WHERE fileId = ? AND term = ?")) {
+				for (String term : removed) {
+					dfStmt.setString(1, term);
+					dfStmt.addBatch();
+					dropStmt.setString(1, term);
+					dropStmt.addBatch();
+					termStmt.setInt(1, fileId);
+					termStmt.setString(2, term);
+					termStmt.addBatch();
+				}
+				dfStmt.executeBatch();
+				dropStmt.executeBatch();
+				termStmt.executeBatch();
+			}
+		}
+
+		if (!added.isEmpty()) {
+			try (PreparedStatement dfStmt = conn.prepareStatement(
+					"INSERT INTO documentfrequency (term, df) VALUES (?, 1) ON DUPLICATE KEY UPDATE df = df + 1");
+					PreparedStatement termStmt = conn
+							.prepareStatement("INSERT INTO fileterms (fileId, term) VALUES (?, ?)")) {
+				for (String term : added) {
+					dfStmt.setString(1, term);
+					dfStmt.addBatch();
+					termStmt.setInt(1, fileId);
+					termStmt.setString(2, term);
+					termStmt.addBatch();
+				}
+				dfStmt.executeBatch();
+				termStmt.executeBatch();
+			}
+		}
+	}
+
+	public void removeFile(Connection conn, int fileId) throws SQLException {
+		replaceFileTerms(conn, fileId, new HashSet<>());
+	}
+
+	/**
+	 * Terms of a file as the union of its pages' terms, read from that file's
+	 * pages only.
+	 */
+	public Set<String> readFileTerms(Connection conn, int fileId) throws SQLException {
+		Set<String> terms = new HashSet<>();
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT pageContent FROM pages WHERE fileId = ?")) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					terms.addAll(termsOf(rs.getString("pageContent")));
+				}
+			}
+		}
+		return terms;
+	}
+
+	public Map<String, Integer> documentFrequencies(Connection conn, Collection<String> terms) throws SQLException {
+		Map<String, Integer> df = new HashMap<>();
+		List<String> pending = new ArrayList<>(terms);
+
+		for (int from = 0; from < pending.size(); from += LOOKUP_CHUNK) {
+			List<String> chunk = pending.subList(from, Math.min(from + LOOKUP_CHUNK, pending.size()));
+			StringBuilder query = new StringBuilder("SELECT term, df FROM documentfrequency WHERE term IN (");
+			for (int i = 0; i < chunk.size(); i++) {
+				query.append(i == 0 ? "?" : ", ?");
+			}
+			query.append(")");
+
+			try (PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+				for (int i = 0; i < chunk.size(); i++) {
+					stmt.setString(i + 1, chunk.get(i));
+				}
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						df.put(rs.getString("term"), rs.getInt("df"));
+					}
+				}
+			}
+		}
+		return df;
+	}
+
+	public int totalDocuments(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM files")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+	/**
+	 * Indexes files saved before the index existed. Runs on a connection of
+	 * its own and commits each file as it is indexed, so it must be called
+	 * before the caller opens a write transaction. The pass is marked done
+	 * only once every file is committed; a failure is logged and the
+	 * remaining files are retried on the next call.
+	 */
+	public synchronized void backfill() {
+		if (backfilled) {
+			return;
+		}
+
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection()) {
+			conn.setAutoCommit(false);
+			FileTermsBuilder builder = new FileTermsBuilder(conn);
+			new CorpusReader().forEachUnindexedPage(builder);
+			int files = builder.finish();
+			if (files > 0) {
+				LOGGER.info("Indexed document frequencies for " + files + " existing files");
+			}
+			backfilled = true;
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error("Could not index existing files for TF-IDF: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Collects the terms of consecutive pages of one file and stores and
+	 * commits them when the stream moves on to the next file.
+	 */
+	private class FileTermsBuilder implements CorpusReader.PageConsumer {
+		private final Connection conn;
+		private final Set<String> terms = new HashSet<>();
+		private int fileId = -1;
+		private int files = 0;
+
+		FileTermsBuilder(Connection conn) {
+			this.conn = conn;
+		}
+
+		@Override
+		public void accept(int pageFileId, int pageNumber, String content) throws SQLException {
+			if (pageFileId != fileId) {
+				finish();
+				fileId = pageFileId;
+			}
+			terms.addAll(termsOf(content));
+		}
+
+		int finish() throws SQLException {
+			if (fileId != -1) {
+				replaceFileTerms(conn, fileId, terms);
+				conn.commit();
+				terms.clear();
+				fileId = -1;
+				files++;
+			}
+			return files;
+		}
+	}
+}
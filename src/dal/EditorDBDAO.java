@@ -1,12 +1,14 @@
 package dal;
 
+import java.io.Reader;
+import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -14,438 +16,457 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import dto.Documents;
+import dto.FileSummary;
+import dto.PageUpdate;
 import dto.Pages;
+import dto.RebalanceResult;
+import dto.SearchMode;
+import dto.SearchResult;
+import dto.WordAnalysis;
 import pl.EditorPO;
 
 public class EditorDBDAO implements IEditorDBDAO {
 	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
-	Connection conn = null;
+	private final DocumentFrequencyIndex documentFrequencyIndex = new DocumentFrequencyIndex();
+	private final MorphologySearch morphologySearch = new MorphologySearch();
 
 	public EditorDBDAO() {
-		this.conn = DatabaseConnection.getInstance().getConnection();
-
 	}
 
 	@Override
-	public synchronized boolean createFileInDB(String nameOfFile, String content) {
-		String hash = null;
-		List<Pages> pages = null;
-
-		String insertQuery = "INSERT INTO files (fileName, fileHash) VALUES (?, ?)";
-		String pageQuery = "INSERT INTO pages (fileId, pageNumber, pageContent) VALUES (?, ?, ?)";
-		String transliterateQuery = "INSERT INTO transliteratedpages (pageId, transliteratedText) VALUES (?, ?)";
-		;
-		String posQuery = "INSERT INTO pos (pageId, word, pos) VALUES (?, ?, ?)";
-		String lemmaQuery = "INSERT INTO lemmatization (pageId, word, lemma) VALUES (?, ?, ?)";
-		String rootQuery = "INSERT INTO rootextraction (pageId, word, root) VALUES (?, ?, ?)";
-		String stemQuery = "INSERT INTO stemmation (pageId, word, stem) VALUES (?, ?, ?)";
-		String segmentQuery = "INSERT INTO wordsegementation (pageId, word, segment) VALUES (?, ?, ?)";
-		String tfidfQuery = "INSERT INTO tfidf (fileId, tfidfScore) VALUES (?, ?)";
-		String pklQuery = "INSERT INTO pkl (pageId, word, pklScore) VALUES (?, ?, ?)";
-		String pmiQuery = "INSERT INTO pmi (pageId, word, pmiScore) VALUES (?, ?, ?)";
-		Map<String, String> analyticsMap = new HashMap<>();
-		Map<String, Double> scoreMap = new HashMap<>();
+	public boolean createFileInDB(String nameOfFile, String content) {
+		return createFileInDB(nameOfFile, new StringReader(content));
+	}
 
-//		PreparedStatement fileStmt = null;
-//		PreparedStatement transliteratetStmt = null;
-//		PreparedStatement posStmt = null;
-//		PreparedStatement lemmaStmt = null;
-//		PreparedStatement rootStmt = null;
-//		PreparedStatement segmentStmt = null;
-//		PreparedStatement stemStmt = null;
-//		PreparedStatement pklStmt = null;
-//		PreparedStatement pmiStmt = null;
-//		PreparedStatement tfidfStmt = null;
+	@Override
+	public boolean createFileInDB(String nameOfFile, Reader content) {
+		AnalyzedDocument document;
 		try {
-
-			hash = HashCalculator.calculateHash(content);
-			pages = PaginationDAO.paginate(content);
+			document = AnalyzedDocument.analyze(nameOfFile, content);
 		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
+			return false;
 		}
 
-		try (PreparedStatement fileStmt = conn.prepareStatement(insertQuery, PreparedStatement.RETURN_GENERATED_KEYS);
-				PreparedStatement pageStmt = conn.prepareStatement(pageQuery, PreparedStatement.RETURN_GENERATED_KEYS);
-				PreparedStatement transliteratetStmt = conn.prepareStatement(transliterateQuery);
-				PreparedStatement posStmt = conn.prepareStatement(posQuery);
-				PreparedStatement lemmaStmt = conn.prepareStatement(lemmaQuery);
-				PreparedStatement rootStmt = conn.prepareStatement(rootQuery);
-				PreparedStatement segmentStmt = conn.prepareStatement(segmentQuery);
-				PreparedStatement stemStmt = conn.prepareStatement(stemQuery);
-				PreparedStatement pklStmt = conn.prepareStatement(pklQuery);
-				PreparedStatement pmiStmt = conn.prepareStatement(pmiQuery);
-				PreparedStatement tfidfStmt = conn.prepareStatement(tfidfQuery)) {
-			conn = DatabaseConnection.getInstance().getConnection();
-			double tfidf = performTFIDF(getAllExistingFilesContent(conn), content);
-			conn.setAutoCommit(false);
-
-			// Insert into files table
-//			fileStmt = conn.prepareStatement(insertQuery, PreparedStatement.RETURN_GENERATED_KEYS);
-			fileStmt.setString(1, nameOfFile);
-			fileStmt.setString(2, hash);
-			fileStmt.executeUpdate();
-
-			ResultSet fileRS = fileStmt.getGeneratedKeys();
-			fileRS.next();
-			int fileID = fileRS.getInt(1);
-
-			for (Pages page : pages) {
-				// Insert into pages table
-//				pageStmt = conn.prepareStatement(pageQuery, PreparedStatement.RETURN_GENERATED_KEYS);
-				pageStmt.setInt(1, fileID);
-				pageStmt.setInt(2, page.getPageNumber());
-				pageStmt.setString(3, page.getPageContent());
-				pageStmt.executeUpdate();
-
-				ResultSet pageRS = pageStmt.getGeneratedKeys();
-				pageRS.next();
-				int pageId = pageRS.getInt(1);
-
-				// Transliteration
-				String transliteratedText = Transliteration.transliterate(page.getPageContent());
-//				transliteratetStmt = conn.prepareStatement(transliterateQuery);
-				transliteratetStmt.setInt(1, pageId);
-				transliteratetStmt.setString(2, transliteratedText);
-				transliteratetStmt.executeUpdate();
-
-				// POS Tagging
-				Map<String, List<String>> posTagsMap = POSTagger.extractPOS(page.getPageContent());
+		String insertQuery = "INSERT INTO files (fileName, fileHash) VALUES (?, ?)";
+		String pageQuery = "INSERT INTO pages (fileId, pageNumber, pageContent, contentHash, contentLength, vocabularyHash, tokenHash) VALUES (?, ?, ?, ?, ?, ?, ?)";
+		String transliterateQuery = "INSERT INTO transliteratedpages (pageId, transliteratedText) VALUES (?, ?)";
+		String tfidfQuery = "INSERT INTO tfidf (fileId, tfidfScore) VALUES (?, ?)";
 
-//				posStmt = conn.prepareStatement(posQuery);
+		documentFrequencyIndex.backfill();
 
-				for (Map.Entry<String, List<String>> entry : posTagsMap.entrySet()) {
-					String word = entry.getKey();
-					List<String> posTags = entry.getValue();
-					String posTagString = String.join("|", posTags);
+		// Closing a borrowed connection rolls back whatever it did not commit
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection()) {
+			// Reads the corpus statistics in autocommit mode, before any lock is taken
+			double tfidf = documentFrequencyIndex.score(conn, document.getTermCounts());
 
-					posStmt.setInt(1, pageId);
-					posStmt.setString(2, word);
-					posStmt.setString(3, posTagString);
-					posStmt.addBatch();
+			long lockStart = System.nanoTime();
+			conn.setAutoCommit(false);
+			try (PreparedStatement fileStmt = conn.prepareStatement(insertQuery, PreparedStatement.RETURN_GENERATED_KEYS);
+					PreparedStatement pageStmt = conn.prepareStatement(pageQuery, PreparedStatement.RETURN_GENERATED_KEYS);
+					PreparedStatement transliteratetStmt = conn.prepareStatement(transliterateQuery);
+					PreparedStatement tfidfStmt = conn.prepareStatement(tfidfQuery)) {
+				fileStmt.setString(1, document.getFileName());
+				fileStmt.setString(2, document.getFileHash());
+				fileStmt.executeUpdate();
+
+				int fileID;
+				try (ResultSet fileRS = fileStmt.getGeneratedKeys()) {
+					fileRS.next();
+					fileID = fileRS.getInt(1);
 				}
-				posStmt.executeBatch();
-
-				analyticsMap = Lemmatization.lemmatizeWords(page.getPageContent());
-
-//				lemmaStmt = conn.prepareStatement(lemmaQuery);
-
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String lemma = entry.getValue();
-					String lemmaString = String.join("|", lemma);
 
-					lemmaStmt.setInt(1, pageId);
-					lemmaStmt.setString(2, word);
-					lemmaStmt.setString(3, lemmaString);
-					lemmaStmt.addBatch();
+				// Analysis rows of all pages are collected and written per table at the end
+				AnalysisBulkWriter writer = new AnalysisBulkWriter(conn);
+				for (int i = 0; i < document.getPageCount(); i++) {
+					Pages page = document.getPage(i);
+					PageFingerprint fingerprint = document.getFingerprint(i);
+					PageAnalysis analysis = document.getAnalysis(i);
+
+					pageStmt.setInt(1, fileID);
+					pageStmt.setInt(2, page.getPageNumber());
+					pageStmt.setString(3, page.getPageContent());
+					pageStmt.setString(4, fingerprint.getContentHash());
+					pageStmt.setInt(5, page.getPageContent().length());
+					pageStmt.setString(6, fingerprint.getVocabularyHash());
+					pageStmt.setString(7, fingerprint.getTokenHash());
+					pageStmt.executeUpdate();
+
+					int pageId;
+					try (ResultSet pageRS = pageStmt.getGeneratedKeys()) {
+						pageRS.next();
+						pageId = pageRS.getInt(1);
+					}
+
+					transliteratetStmt.setInt(1, pageId);
+					transliteratetStmt.setString(2, analysis.getTransliteration());
+					transliteratetStmt.executeUpdate();
+
+					Map<String, String> posTags = new LinkedHashMap<>();
+					for (Map.Entry<String, List<String>> entry : analysis.getPosTags().entrySet()) {
+						posTags.put(entry.getKey(), String.join("|", entry.getValue()));
+					}
+					writer.addRows("pos", "pos", pageId, posTags);
+					writer.addRows("lemmatization", "lemma", pageId, MorphologySearch.indexable(analysis.getLemmas()));
+					writer.addRows("rootextraction", "root", pageId, MorphologySearch.indexable(analysis.getRoots()));
+					writer.addRows("wordsegementation", "segment", pageId, analysis.getSegments());
+					writer.addRows("stemmation", "stem", pageId, MorphologySearch.indexable(analysis.getStems()));
+					writer.addRows("pkl", "pklScore", pageId, analysis.getPklScores());
+					writer.addRows("pmi", "pmiScore", pageId, analysis.getPmiScores());
 				}
-				lemmaStmt.executeBatch();
-				analyticsMap = RootExtraction.extractRoots(page.getPageContent());
+				writer.flush();
+				documentFrequencyIndex.replaceFileTerms(conn, fileID, document.getTerms());
 
-//				rootStmt = conn.prepareStatement(rootQuery);
+				tfidfStmt.setInt(1, fileID);
+				tfidfStmt.setDouble(2, tfidf);
+				tfidfStmt.executeUpdate();
+			}
+			conn.commit();
+			long lockMillis = (System.nanoTime() - lockStart) / 1000000;
 
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String root = entry.getValue();
-					String rootString = String.join("|", root);
+			LOGGER.info("Stored " + document.getFileName() + " (" + document.getPageCount() + " pages): analysis took "
+					+ document.getAnalysisMillis() + " ms, write transaction held locks for " + lockMillis + " ms");
+			LOGGER.info(MorphologyEngine.getInstance().getCache());
+			LOGGER.info(DatabaseConnection.getInstance());
+			return true;
 
-					rootStmt.setInt(1, pageId);
-					rootStmt.setString(2, word);
-					rootStmt.setString(3, rootString);
-					rootStmt.addBatch();
-				}
-				rootStmt.executeBatch();
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
 
-				analyticsMap = WordSegmentation.extractSegments(page.getPageContent());
-//				segmentStmt = conn.prepareStatement(segmentQuery);
+		return false;
+	}
 
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String segment = entry.getValue();
-					String segmentString = String.join("|", segment);
+	@Override
+	public PageUpdate updateFileInDB(int fileId, String fileName, int pageNumber, String content) {
+		String lookupQuery = "SELECT p.pageId, p.contentHash, p.vocabularyHash, p.tokenHash, f.fileName "
+				+ "FROM pages p JOIN files f ON f.fileId = p.fileId WHERE p.fileId = ? AND p.pageNumber = ?";
+		String renameQuery = "UPDATE files SET fileName = ? WHERE fileId = ?";
+		String fileQuery = "UPDATE files SET fileName = ?, lastModified = CURRENT_TIMESTAMP() WHERE fileId = ?";
+		String pageQuery = "UPDATE pages SET pageContent = ?, contentHash = ?, contentLength = ?, vocabularyHash = ?, tokenHash = ? WHERE pageId = ?";
+		String tfidfQuery = "UPDATE tfidf SET tfidfScore = ? WHERE fileId = ?";
 
-					segmentStmt.setInt(1, pageId);
-					segmentStmt.setString(2, word);
-					segmentStmt.setString(3, segmentString);
-					segmentStmt.addBatch();
-				}
-				segmentStmt.executeBatch();
+		// Commits on its own connection, so it has to finish before this transaction starts
+		documentFrequencyIndex.backfill();
 
-				analyticsMap = Stemmation.stemWords(page.getPageContent());
-//				stemStmt = conn.prepareStatement(stemQuery);
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection()) {
+			PageFingerprint fingerprint = PageFingerprint.of(content);
 
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String stem = entry.getValue();
-					String stemString = String.join("|", stem);
+			conn.setAutoCommit(false);
 
-					stemStmt.setInt(1, pageId);
-					stemStmt.setString(2, word);
-					stemStmt.setString(3, stemString);
-					stemStmt.addBatch();
+			int pageId;
+			String storedContentHash;
+			String storedVocabularyHash;
+			String storedTokenHash;
+			String storedFileName;
+			try (PreparedStatement lookupStmt = conn.prepareStatement(lookupQuery)) {
+				lookupStmt.setInt(1, fileId);
+				lookupStmt.setInt(2, pageNumber);
+				try (ResultSet rs = lookupStmt.executeQuery()) {
+					if (!rs.next()) {
+						throw new SQLException("Page not found for the given fileId and pageNumber");
+					}
+					pageId = rs.getInt("pageId");
+					storedContentHash = rs.getString("contentHash");
+					storedVocabularyHash = rs.getString("vocabularyHash");
+					storedTokenHash = rs.getString("tokenHash");
+					storedFileName = rs.getString("fileName");
 				}
-				stemStmt.executeBatch();
-
-				scoreMap = performPKL(page.getPageContent());
-//				pklStmt = conn.prepareStatement(pklQuery);
-
-				for (Map.Entry<String, Double> entry : scoreMap.entrySet()) {
-					String word = entry.getKey();
-					Double pkl = entry.getValue();
+			}
 
-					pklStmt.setInt(1, pageId);
-					pklStmt.setString(2, word);
-					pklStmt.setDouble(3, pkl);
-					pklStmt.addBatch();
+			// Unchanged page: the stored analysis is still valid, only a rename can be pending
+			if (fingerprint.getContentHash().equals(storedContentHash)) {
+				if (fileName.equals(storedFileName)) {
+					conn.commit();
+					return PageUpdate.UNCHANGED;
 				}
-				pklStmt.executeBatch();
-
-				scoreMap = performPMI(page.getPageContent());
-//				pmiStmt = conn.prepareStatement(pmiQuery);
-
-				for (Map.Entry<String, Double> entry : scoreMap.entrySet()) {
-					String word = entry.getKey();
-					Double pmi = entry.getValue();
-
-					pmiStmt.setInt(1, pageId);
-					pmiStmt.setString(2, word);
-					pmiStmt.setDouble(3, pmi);
-					pmiStmt.addBatch();
+				try (PreparedStatement renameStmt = conn.prepareStatement(renameQuery)) {
+					renameStmt.setString(1, fileName);
+					renameStmt.setInt(2, fileId);
+					renameStmt.executeUpdate();
 				}
-				pmiStmt.executeBatch();
+				conn.commit();
+				return PageUpdate.RENAMED;
+			}
 
+			try (PreparedStatement fileStmt = conn.prepareStatement(fileQuery);
+					PreparedStatement pageStmt = conn.prepareStatement(pageQuery)) {
+				fileStmt.setString(1, fileName);
+				fileStmt.setInt(2, fileId);
+				fileStmt.executeUpdate();
+
+				pageStmt.setString(1, content);
+				pageStmt.setString(2, fingerprint.getContentHash());
+				pageStmt.setInt(3, content.length());
+				pageStmt.setString(4, fingerprint.getVocabularyHash());
+				pageStmt.setString(5, fingerprint.getTokenHash());
+				pageStmt.setInt(6, pageId);
+				pageStmt.executeUpdate();
 			}
 
-//			tfidfStmt = conn.prepareStatement(tfidfQuery);
-			tfidfStmt.setInt(1, fileID);
-			tfidfStmt.setDouble(2, tfidf);
-			tfidfStmt.executeUpdate();
+			// Only words whose analysis changed are written, so a small edit touches a few rows
+			PageRowDelta delta = new PageRowDelta();
+
+			// TF-IDF is rescored only when the word sequence changed
+			if (applyPageAnalysis(conn, delta, pageId, content, fingerprint, storedVocabularyHash, storedTokenHash)) {
+				try (PreparedStatement tfidfStmt = conn.prepareStatement(tfidfQuery)) {
+					documentFrequencyIndex.replaceFileTerms(conn, fileId, documentFrequencyIndex.readFileTerms(conn, fileId));
+					double tfidf = documentFrequencyIndex.score(conn, content);
+					tfidfStmt.setDouble(1, tfidf);
+					tfidfStmt.setInt(2, fileId);
+					tfidfStmt.executeUpdate();
+				}
+			}
 
 			conn.commit();
-			return true;
-
+			LOGGER.info("Updated page " + pageNumber + " of file " + fileId + ": " + delta);
+			return PageUpdate.UPDATED;
 		} catch (Exception e) {
-			try {
-				conn.rollback();
-			} catch (SQLException e1) {
-				e1.printStackTrace();
-				LOGGER.error(e1.getMessage());
-			}
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
+			return null;
 		}
+	}
 
-		return false;
+	/**
+	 * Brings the analysis rows of a page in line with its content, skipping
+	 * the families whose input hash did not change. Returns whether the token
+	 * sequence changed.
+	 */
+	private boolean applyPageAnalysis(Connection conn, PageRowDelta delta, int pageId, String content,
+			PageFingerprint fingerprint, String storedVocabularyHash, String storedTokenHash) throws SQLException {
+		// Morphology rows are keyed on the distinct words of the page
+		if (!fingerprint.getVocabularyHash().equals(storedVocabularyHash)) {
+			Map<String, WordAnalysis> analyses = MorphologyEngine.getInstance().analyzeText(content);
+
+			Map<String, String> posTags = new LinkedHashMap<>();
+			for (Map.Entry<String, List<String>> entry : POSTagger.extractPOS(analyses).entrySet()) {
+				posTags.put(entry.getKey(), String.join("|", entry.getValue()));
+			}
+			delta.apply(conn, "pos", "pos", pageId, posTags, String.class);
+			delta.apply(conn, "lemmatization", "lemma", pageId,
+					MorphologySearch.indexable(Lemmatization.lemmatizeWords(analyses)), String.class);
+			delta.apply(conn, "rootextraction", "root", pageId,
+					MorphologySearch.indexable(RootExtraction.extractRoots(analyses)), String.class);
+			delta.apply(conn, "wordsegementation", "segment", pageId, WordSegmentation.extractSegments(analyses),
+					String.class);
+			delta.apply(conn, "stemmation", "stem", pageId, MorphologySearch.indexable(Stemmation.stemWords(analyses)),
+					String.class);
+		}
+
+		if (fingerprint.getTokenHash().equals(storedTokenHash)) {
+			return false;
+		}
+		delta.apply(conn, "pkl", "pklScore", pageId, performPKL(content), Double.class);
+		delta.apply(conn, "pmi", "pmiScore", pageId, performPMI(content), Double.class);
+		return true;
 	}
 
 	@Override
-	public boolean updateFileInDB(int fileId, String fileName, int pageNumber, String content) {
-
-		PreparedStatement fileStmt = null;
-		PreparedStatement pageStmt = null;
-		// PreparedStatement transliterateStmt = null;
-		PreparedStatement posStmt = null;
-		PreparedStatement lemmaStmt = null;
-		PreparedStatement rootStmt = null;
-		PreparedStatement segmentStmt = null;
-		PreparedStatement stemStmt = null;
-		PreparedStatement pklStmt = null;
-		PreparedStatement pmiStmt = null;
-		PreparedStatement tfidfStmt = null;
-
-		try {
+	public RebalanceResult rebalancePageInDB(int fileId, int pageNumber) {
+		int pageSize = Math.max(2, Configuration.getInt("pagination.pageSize", 100));
+		String lockQuery = "SELECT pageId, pageNumber, pageContent, vocabularyHash, tokenHash FROM pages "
+				+ "WHERE fileId = ? AND pageNumber BETWEEN ? AND ? ORDER BY pageNumber FOR UPDATE";
 
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection()) {
 			conn.setAutoCommit(false);
 
-			// Update file information
-			String fileQuery = "UPDATE files SET fileName = ?, lastModified = CURRENT_TIMESTAMP() WHERE fileId = ?";
-			fileStmt = conn.prepareStatement(fileQuery);
-			fileStmt.setString(1, fileName);
-			fileStmt.setInt(2, fileId);
-			fileStmt.executeUpdate();
-
-			// Update page content
-			String pageQuery = "UPDATE pages SET pageContent = ? WHERE fileId = ? AND pageNumber = ?";
-			pageStmt = conn.prepareStatement(pageQuery);
-			pageStmt.setString(1, content);
-			pageStmt.setInt(2, fileId);
-			pageStmt.setInt(3, pageNumber);
-			pageStmt.executeUpdate();
-
-			// Get the pageId of the updated page
-			String pageIdQuery = "SELECT pageId FROM pages WHERE fileId = ? AND pageNumber = ?";
-			PreparedStatement pageIdStmt = conn.prepareStatement(pageIdQuery);
-			pageIdStmt.setInt(1, fileId);
-			pageIdStmt.setInt(2, pageNumber);
-			ResultSet pageIdRS = pageIdStmt.executeQuery();
-			if (!pageIdRS.next()) {
-				throw new SQLException("Page not found for the given fileId and pageNumber");
-			}
-			int pageId = pageIdRS.getInt("pageId");
-
-//	        // Update transliteration
-//	        String transliteratedText = Transliteration.transliterate(content);
-//	        String transliterateQuery = "UPDATE transliteratedpages SET transliteratedText = ? WHERE pageId = ?";
-//	        transliterateStmt = conn.prepareStatement(transliterateQuery);
-//	        transliterateStmt.setString(1, transliteratedText);
-//	        transliterateStmt.setInt(2, pageId);
-//	        transliterateStmt.executeUpdate();
-
-			// Update POS tagging
-			Map<String, List<String>> posTagsMap = POSTagger.extractPOS(content);
-			String deletePosQuery = "DELETE FROM pos WHERE pageId = ?";
-			posStmt = conn.prepareStatement(deletePosQuery);
-			posStmt.setInt(1, pageId);
-			posStmt.executeUpdate();
-
-			String insertPosQuery = "INSERT INTO pos (pageId, word, pos) VALUES (?, ?, ?)";
-			posStmt = conn.prepareStatement(insertPosQuery);
-			for (Map.Entry<String, List<String>> entry : posTagsMap.entrySet()) {
-				String word = entry.getKey();
-				String posTags = String.join("|", entry.getValue());
-				posStmt.setInt(1, pageId);
-				posStmt.setString(2, word);
-				posStmt.setString(3, posTags);
-				posStmt.addBatch();
-			}
-			posStmt.executeBatch();
-
-			// Update lemmatization
-			Map<String, String> lemmaMap = Lemmatization.lemmatizeWords(content);
-			String deleteLemmaQuery = "DELETE FROM lemmatization WHERE pageId = ?";
-			lemmaStmt = conn.prepareStatement(deleteLemmaQuery);
-			lemmaStmt.setInt(1, pageId);
-			lemmaStmt.executeUpdate();
-
-			String insertLemmaQuery = "INSERT INTO lemmatization (pageId, word, lemma) VALUES (?, ?, ?)";
-			lemmaStmt = conn.prepareStatement(insertLemmaQuery);
-			for (Map.Entry<String, String> entry : lemmaMap.entrySet()) {
-				lemmaStmt.setInt(1, pageId);
-				lemmaStmt.setString(2, entry.getKey());
-				lemmaStmt.setString(3, entry.getValue());
-				lemmaStmt.addBatch();
-			}
-			lemmaStmt.executeBatch();
-
-			// Update root extraction
-			Map<String, String> rootMap = RootExtraction.extractRoots(content);
-			String deleteRootQuery = "DELETE FROM rootextraction WHERE pageId = ?";
-			rootStmt = conn.prepareStatement(deleteRootQuery);
-			rootStmt.setInt(1, pageId);
-			rootStmt.executeUpdate();
-
-			String insertRootQuery = "INSERT INTO rootextraction (pageId, word, root) VALUES (?, ?, ?)";
-			rootStmt = conn.prepareStatement(insertRootQuery);
-			for (Map.Entry<String, String> entry : rootMap.entrySet()) {
-				rootStmt.setInt(1, pageId);
-				rootStmt.setString(2, entry.getKey());
-				rootStmt.setString(3, entry.getValue());
-				rootStmt.addBatch();
-			}
-			rootStmt.executeBatch();
-
-			// Update word segmentation
-			Map<String, String> segmentMap = WordSegmentation.extractSegments(content);
-			String deleteSegmentQuery = "DELETE FROM wordsegementation WHERE pageId = ?";
-			segmentStmt = conn.prepareStatement(deleteSegmentQuery);
-			segmentStmt.setInt(1, pageId);
-			segmentStmt.executeUpdate();
-
-			String insertSegmentQuery = "INSERT INTO wordsegementation (pageId, word, segment) VALUES (?, ?, ?)";
-			segmentStmt = conn.prepareStatement(insertSegmentQuery);
-			for (Map.Entry<String, String> entry : segmentMap.entrySet()) {
-				segmentStmt.setInt(1, pageId);
-				segmentStmt.setString(2, entry.getKey());
-				segmentStmt.setString(3, entry.getValue());
-				segmentStmt.addBatch();
-			}
-			segmentStmt.executeBatch();
-
-			// Update stemming
-			Map<String, String> stemMap = Stemmation.stemWords(content);
-			String deleteStemQuery = "DELETE FROM stemmation WHERE pageId = ?";
-			stemStmt = conn.prepareStatement(deleteStemQuery);
-			stemStmt.setInt(1, pageId);
-			stemStmt.executeUpdate();
-
-			String insertStemQuery = "INSERT INTO stemmation (pageId, word, stem) VALUES (?, ?, ?)";
-			stemStmt = conn.prepareStatement(insertStemQuery);
-			for (Map.Entry<String, String> entry : stemMap.entrySet()) {
-				stemStmt.setInt(1, pageId);
-				stemStmt.setString(2, entry.getKey());
-				stemStmt.setString(3, entry.getValue());
-				stemStmt.addBatch();
-			}
-			stemStmt.executeBatch();
-
-			// Update PKL
-			Map<String, Double> pklMap = performPKL(content);
-			String deletePklQuery = "DELETE FROM pkl WHERE pageId = ?";
-			pklStmt = conn.prepareStatement(deletePklQuery);
-			pklStmt.setInt(1, pageId);
-			pklStmt.executeUpdate();
-
-			String insertPklQuery = "INSERT INTO pkl (pageId, word, pklScore) VALUES (?, ?, ?)";
-			pklStmt = conn.prepareStatement(insertPklQuery);
-			for (Map.Entry<String, Double> entry : pklMap.entrySet()) {
-				pklStmt.setInt(1, pageId);
-				pklStmt.setString(2, entry.getKey());
-				pklStmt.setDouble(3, entry.getValue());
-				pklStmt.addBatch();
+			// The edited page and its neighbours, locked so a concurrent save waits for the renumbering
+			Map<Integer, StoredPage> stored = new HashMap<>();
+			try (PreparedStatement stmt = conn.prepareStatement(lockQuery)) {
+				stmt.setInt(1, fileId);
+				stmt.setInt(2, pageNumber - 1);
+				stmt.setInt(3, pageNumber + 1);
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						StoredPage page = new StoredPage(rs.getInt("pageId"), rs.getInt("pageNumber"),
+								rs.getString("pageContent"), rs.getString("vocabularyHash"), rs.getString("tokenHash"));
+						stored.put(page.pageNumber, page);
+					}
+				}
 			}
-			pklStmt.executeBatch();
-
-			// Update PMI
-			Map<String, Double> pmiMap = performPMI(content);
-			String deletePmiQuery = "DELETE FROM pmi WHERE pageId = ?";
-			pmiStmt = conn.prepareStatement(deletePmiQuery);
-			pmiStmt.setInt(1, pageId);
-			pmiStmt.executeUpdate();
-
-			String insertPmiQuery = "INSERT INTO pmi (pageId, word, pmiScore) VALUES (?, ?, ?)";
-			pmiStmt = conn.prepareStatement(insertPmiQuery);
-			for (Map.Entry<String, Double> entry : pmiMap.entrySet()) {
-				pmiStmt.setInt(1, pageId);
-				pmiStmt.setString(2, entry.getKey());
-				pmiStmt.setDouble(3, entry.getValue());
-				pmiStmt.addBatch();
+			StoredPage page = stored.get(pageNumber);
+			if (page == null) {
+				throw new SQLException("Page not found for the given fileId and pageNumber");
 			}
-			pmiStmt.executeBatch();
 
-			// Update TF-IDF
-			double tfidf = performTFIDF(getAllExistingFilesContent(conn), content);
-			String tfidfQuery = "UPDATE tfidf SET tfidfScore = ? WHERE fileId = ?";
-			tfidfStmt = conn.prepareStatement(tfidfQuery);
-			tfidfStmt.setDouble(1, tfidf);
-			tfidfStmt.setInt(2, fileId);
-			tfidfStmt.executeUpdate();
+			// Pages are cut and joined at whitespace, so the file keeps its words and
+			// its fileterms, document frequencies and TF-IDF score stay valid
+			PageRowDelta delta = new PageRowDelta();
+			int resultPage = pageNumber;
+			int firstChangedPage;
+			int changedPages;
+			int pageCountChange;
+
+			if (page.content.length() > pageSize) {
+				List<Pages> parts = new ArrayList<>();
+				new Paginator(new StringReader(page.content), pageSize).forEachRemaining(parts::add);
+				shiftPages(conn, fileId, pageNumber, parts.size() - 1);
+
+				writePage(conn, delta, page, parts.get(0).getPageContent());
+				for (int i = 1; i < parts.size(); i++) {
+					StoredPage inserted = insertPage(conn, fileId, pageNumber + i, parts.get(i).getPageContent());
+					writePage(conn, delta, inserted, inserted.content);
+				}
+				firstChangedPage = pageNumber;
+				changedPages = parts.size();
+				pageCountChange = parts.size() - 1;
+			} else if (page.content.length() < pageSize / 2) {
+				StoredPage next = stored.get(pageNumber + 1);
+				StoredPage previous = stored.get(pageNumber - 1);
+				StoredPage keep;
+				StoredPage drop;
+				if (next != null && join(page.content, next.content).length() <= pageSize) {
+					keep = page;
+					drop = next;
+				} else if (previous != null && join(previous.content, page.content).length() <= pageSize) {
+					keep = previous;
+					drop = page;
+					resultPage = previous.pageNumber;
+				} else {
+					conn.commit();
+					return new RebalanceResult(pageNumber);
+				}
+
+				// Analysis rows of the dropped page go with it through ON DELETE CASCADE
+				try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM pages WHERE pageId = ?")) {
+					stmt.setInt(1, drop.pageId);
+					stmt.executeUpdate();
+				}
+				shiftPages(conn, fileId, drop.pageNumber, -1);
+				writePage(conn, delta, keep, join(keep.content, drop.content));
+				firstChangedPage = keep.pageNumber;
+				changedPages = 1;
+				pageCountChange = -1;
+			} else {
+				conn.commit();
+				return new RebalanceResult(pageNumber);
+			}
 
+			int lastPage = lastPageNumber(conn, fileId);
 			conn.commit();
-			return true;
+			LOGGER.info("Rebalanced page " + pageNumber + " of file " + fileId + " into " + changedPages + " pages: "
+					+ delta);
+			return new RebalanceResult(resultPage, firstChangedPage, lastPage, pageCountChange);
 		} catch (Exception e) {
-			try {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return null;
+		}
+	}
 
-				conn.rollback();
+	/**
+	 * Joins two neighbouring pages. An edited page may have lost the
+	 * whitespace it ended with, so a space keeps its last word apart from the
+	 * first word of the next page.
+	 */
+	private static String join(String first, String second) {
+		if (first.isEmpty() || second.isEmpty() || ArabicTokenizer.isWhitespace(first.charAt(first.length() - 1))
+				|| ArabicTokenizer.isWhitespace(second.charAt(0))) {
+			return first + second;
+		}
+		return first + " " + second;
+	}
 
-			} catch (SQLException rollbackEx) {
-				rollbackEx.printStackTrace();
-				LOGGER.error(rollbackEx.getMessage());
+	private int lastPageNumber(Connection conn, int fileId) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT MAX(pageNumber) FROM pages WHERE fileId = ?")) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next() ? rs.getInt(1) : 0;
+			}
+		}
+	}
+
+	/**
+	 * Moves every page after pageNumber by offset. The order keeps each step
+	 * clear of the (fileId, pageNumber) unique index.
+	 */
+	private void shiftPages(Connection conn, int fileId, int pageNumber, int offset) throws SQLException {
+		if (offset == 0) {
+			return;
+		}
+		String query = "UPDATE pages SET pageNumber = pageNumber + ? WHERE fileId = ? AND pageNumber > ? ORDER BY pageNumber "
+				+ (offset > 0 ? "DESC" : "ASC");
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setInt(1, offset);
+			stmt.setInt(2, fileId);
+			stmt.setInt(3, pageNumber);
+			stmt.executeUpdate();
+		}
+	}
+
+	private StoredPage insertPage(Connection conn, int fileId, int pageNumber, String content) throws SQLException {
+		String query = "INSERT INTO pages (fileId, pageNumber, pageContent) VALUES (?, ?, ?)";
+		try (PreparedStatement stmt = conn.prepareStatement(query, PreparedStatement.RETURN_GENERATED_KEYS)) {
+			stmt.setInt(1, fileId);
+			stmt.setInt(2, pageNumber);
+			stmt.setString(3, content);
+			stmt.executeUpdate();
+			try (ResultSet rs = stmt.getGeneratedKeys()) {
+				rs.next();
+				return new StoredPage(rs.getInt(1), pageNumber, content, null, null);
 			}
-			e.printStackTrace();
-			LOGGER.error(e.getMessage());
-			return false;
+		}
+	}
+
+	/**
+	 * Stores new content for a page with its hashes, analysis rows and
+	 * transliteration.
+	 */
+	private void writePage(Connection conn, PageRowDelta delta, StoredPage page, String content) throws Exception {
+		PageFingerprint fingerprint = PageFingerprint.of(content);
+		String pageQuery = "UPDATE pages SET pageContent = ?, contentHash = ?, contentLength = ?, vocabularyHash = ?, tokenHash = ? WHERE pageId = ?";
+		String transliterateQuery = "INSERT INTO transliteratedpages (pageId, transliteratedText) VALUES (?, ?) "
+				+ "ON DUPLICATE KEY UPDATE transliteratedText = VALUES(transliteratedText)";
+
+		try (PreparedStatement stmt = conn.prepareStatement(pageQuery)) {
+			stmt.setString(1, content);
+			stmt.setString(2, fingerprint.getContentHash());
+			stmt.setInt(3, content.length());
+			stmt.setString(4, fingerprint.getVocabularyHash());
+			stmt.setString(5, fingerprint.getTokenHash());
+			stmt.setInt(6, page.pageId);
+			stmt.executeUpdate();
+		}
+		applyPageAnalysis(conn, delta, page.pageId, content, fingerprint, page.vocabularyHash, page.tokenHash);
+		try (PreparedStatement stmt = conn.prepareStatement(transliterateQuery)) {
+			stmt.setInt(1, page.pageId);
+			stmt.setString(2, Transliteration.transliterate(content));
+			stmt.executeUpdate();
+		}
+	}
+
+	private static class StoredPage {
+		private final int pageId;
+		private final int pageNumber;
+		private final String content;
+		private final String vocabularyHash;
+		private final String tokenHash;
+
+		StoredPage(int pageId, int pageNumber, String content, String vocabularyHash, String tokenHash) {
+			this.pageId = pageId;
+			this.pageNumber = pageNumber;
+			this.content = content;
+			this.vocabularyHash = vocabularyHash;
+			this.tokenHash = tokenHash;
 		}
 	}
 
 	@Override
 	public boolean deleteFileInDB(int id) {
 		String query = "DELETE FROM FILES WHERE fileId = ?";
-		try (PreparedStatement fileStmt = conn.prepareStatement(query)) {
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection();
+				PreparedStatement fileStmt = conn.prepareStatement(query)) {
+			conn.setAutoCommit(false);
 
+			// fileterms cascades with the file, so release its document frequencies first
+			documentFrequencyIndex.removeFile(conn, id);
 			fileStmt.setInt(1, id);
 			int rowsAffected = fileStmt.executeUpdate();
 
+			conn.commit();
 			return rowsAffected > 0;
 
 		} catch (SQLException e) {
@@ -475,50 +496,180 @@ public class EditorDBDAO implements IEditorDBDAO {
 
 	@Override
 	public List<Documents> getFilesFromDB() {
-		List<Documents> documents = new ArrayList<>();
+		String query = "SELECT f.fileId, f.fileName, f.fileHash, f.dateCreated, f.lastModified, "
+				+ "p.pageId, p.pageNumber, p.pageContent FROM files f LEFT JOIN pages p ON p.fileId = f.fileId "
+				+ "ORDER BY f.fileId, p.pageNumber";
+
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection();
+				PreparedStatement stmt = conn.prepareStatement(query);
+				ResultSet rs = stmt.executeQuery()) {
+			return readDocuments(rs);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return new ArrayList<>();
+	}
 
-		PreparedStatement stmt = null;
-		String query = null;
-		ResultSet rs;
+	@Override
+	public Documents getFileById(int id) {
+		String query = "SELECT f.fileId, f.fileName, f.fileHash, f.dateCreated, f.lastModified, "
+				+ "p.pageId, p.pageNumber, p.pageContent FROM files f LEFT JOIN pages p ON p.fileId = f.fileId "
+				+ "WHERE f.fileId = ? ORDER BY p.pageNumber";
+
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection();
+				PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setInt(1, id);
+			try (ResultSet rs = stmt.executeQuery()) {
+				List<Documents> documents = readDocuments(rs);
+				return documents.isEmpty() ? null : documents.get(0);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return null;
+	}
 
-		try {
+	// Rows are ordered by file, then page; a file without pages has one row with NULL page columns
+	private List<Documents> readDocuments(ResultSet rs) throws SQLException {
+		List<Documents> documents = new ArrayList<>();
+		List<Pages> pages = null;
+		int currentId = -1;
+
+		while (rs.next()) {
+			int id = rs.getInt("fileId");
+			if (pages == null || id != currentId) {
+				currentId = id;
+				pages = new ArrayList<>();
+				documents.add(new Documents(id, rs.getString("fileName"), rs.getString("fileHash"),
+						rs.getString("lastModified"), rs.getString("dateCreated"), pages));
+			}
 
-			conn.setAutoCommit(false);
-			query = "SELECT fileId, fileName, filehash, dateCreated, lastModified FROM files";
-			stmt = conn.prepareStatement(query);
-			rs = stmt.executeQuery();
+			int pageId = rs.getInt("pageId");
+			if (!rs.wasNull()) {
+				pages.add(new Pages(pageId, id, rs.getInt("pageNumber"), rs.getString("pageContent")));
+			}
+		}
+		return documents;
+	}
 
+	@Override
+	public List<FileSummary> listFileSummaries() {
+		List<FileSummary> summaries = new ArrayList<>();
+		// Sizes come from the stored contentLength, so the off-page LONGTEXT columns stay on disk
+		String query = "SELECT f.fileId, f.fileName, f.fileHash, f.dateCreated, f.lastModified, "
+				+ "COUNT(p.pageId) AS pageCount, COALESCE(SUM(p.contentLength), 0) AS contentLength "
+				+ "FROM files f LEFT JOIN pages p ON p.fileId = f.fileId "
+				+ "GROUP BY f.fileId, f.fileName, f.fileHash, f.dateCreated, f.lastModified ORDER BY f.fileId";
+
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection();
+				PreparedStatement stmt = conn.prepareStatement(query);
+				ResultSet rs = stmt.executeQuery()) {
 			while (rs.next()) {
-				int id = rs.getInt("fileId");
-				String name = rs.getString("fileName");
-				String hash = rs.getString("fileHash");
-				String lastModified = rs.getString("lastModified");
-				String dateCreated = rs.getString("dateCreated");
-
-				String query1 = "SELECT pageId, fileId, pageNumber, pageContent FROM pages where fileId = ?";
-				PreparedStatement stmt1 = conn.prepareStatement(query1);
-				stmt1.setInt(1, id);
-				ResultSet rs1 = stmt1.executeQuery();
-				List<Pages> pages = new ArrayList<Pages>();
-
-				while (rs1.next()) {
-					pages.add(new Pages(rs1.getInt("pageId"), rs1.getInt("fileId"), rs1.getInt("pageNumber"),
-							rs1.getString("pageContent")));
-				}
+				summaries.add(new FileSummary(rs.getInt("fileId"), rs.getString("fileName"), rs.getString("fileHash"),
+						rs.getString("lastModified"), rs.getString("dateCreated"), rs.getInt("pageCount"),
+						rs.getLong("contentLength")));
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return summaries;
+	}
 
-				documents.add(new Documents(id, name, hash, lastModified, dateCreated, pages));
+	@Override
+	public Map<Integer, String> getLastPageContents() {
+		Map<Integer, String> contents = new HashMap<>();
+		String query = "SELECT p.fileId, p.pageContent FROM pages p JOIN "
+				+ "(SELECT fileId, MAX(pageNumber) AS lastPage FROM pages GROUP BY fileId) l "
+				+ "ON l.fileId = p.fileId AND l.lastPage = p.pageNumber";
+
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection();
+				PreparedStatement stmt = conn.prepareStatement(query);
+				ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				contents.put(rs.getInt("fileId"), rs.getString("pageContent"));
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return contents;
+	}
+
+	@Override
+	public List<Pages> getPagesFromDB(int fileId, int firstPage, int lastPage) {
+		List<Pages> pages = new ArrayList<>();
+		String query = "SELECT pageId, fileId, pageNumber, pageContent FROM pages "
+				+ "WHERE fileId = ? AND pageNumber BETWEEN ? AND ? ORDER BY pageNumber";
+
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection();
+				PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setInt(1, fileId);
+			stmt.setInt(2, firstPage);
+			stmt.setInt(3, lastPage);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					pages.add(new Pages(rs.getInt("pageId"), rs.getInt("fileId"), rs.getInt("pageNumber"),
+							rs.getString("pageContent")));
+				}
 			}
-			conn.commit();
 		} catch (Exception e) {
-			try {
-				conn.rollback();
-			} catch (SQLException e1) {
-				e1.printStackTrace();
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return pages;
+	}
+
+	@Override
+	public int getPageCountFromDB(int fileId) {
+		String query = "SELECT COUNT(*) FROM pages WHERE fileId = ?";
+
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection();
+				PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next() ? rs.getInt(1) : 0;
 			}
+		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
 		}
-		return documents;
+		return 0;
+	}
+
+	@Override
+	public int readCorpus(CorpusReader.PageConsumer consumer) {
+		try {
+			return new CorpusReader().forEachPage(consumer);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return -1;
+		}
+	}
+
+	@Override
+	public int readPageHashes(CorpusReader.PageConsumer consumer) {
+		try {
+			return new CorpusReader().forEachPageHash(consumer);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return -1;
+		}
+	}
+
+	@Override
+	public List<SearchResult> searchByMorphology(String word, SearchMode mode) {
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection()) {
+			return morphologySearch.search(conn, mode, word);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return new ArrayList<>();
 	}
 
 	@Override
@@ -527,7 +678,7 @@ public class EditorDBDAO implements IEditorDBDAO {
 		String deleteQuery = "DELETE FROM transliteratedpages WHERE pageId = ?";
 		String insertQuery = "INSERT INTO transliteratedpages (pageId, transliteratedText) VALUES (?, ?)";
 
-		try {
+		try (Connection conn = DatabaseConnection.getInstance().borrowConnection()) {
 			// Ensure the transliteration result is valid
 			content = Transliteration.transliterate(arabicText);
 
@@ -554,51 +705,30 @@ public class EditorDBDAO implements IEditorDBDAO {
 		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
-			try {
-
-				conn.rollback();
-
-			} catch (SQLException rollbackEx) {
-				rollbackEx.printStackTrace();
-				LOGGER.error(rollbackEx.getMessage());
-			}
 			return null;
 		}
 	}
 
-	private List<String> getAllExistingFilesContent(Connection conn) throws SQLException {
-		List<String> allFilesContent = new ArrayList<>();
-		String query = "SELECT f.fileId, GROUP_CONCAT(p.pageContent ORDER BY p.pageNumber SEPARATOR '') AS fileContent "
-				+ "FROM files f " + "JOIN pages p ON f.fileId = p.fileId " + "GROUP BY f.fileId";
-
-		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
-			while (rs.next()) {
-				allFilesContent.add(rs.getString("fileContent"));
-			}
-		}
-		return allFilesContent;
-	}
-
 	@Override
-	public synchronized Map<String, String> lemmatizeWords(String text) {
+	public Map<String, String> lemmatizeWords(String text) {
 		// TODO Auto-generated method stub
 		return Lemmatization.lemmatizeWords(PreProcessText.preprocessText(text));
 	}
 
 	@Override
-	public synchronized Map<String, List<String>> extractPOS(String text) {
+	public Map<String, List<String>> extractPOS(String text) {
 		// TODO Auto-generated method stub
 		return POSTagger.extractPOS(PreProcessText.preprocessText(text));
 	}
 
 	@Override
-	public synchronized Map<String, String> extractRoots(String text) {
+	public Map<String, String> extractRoots(String text) {
 		// TODO Auto-generated method stub
 		return RootExtraction.extractRoots(PreProcessText.preprocessText(text));
 	}
 
 	@Override
-	public synchronized double performTFIDF(List<String> unSelectedDocsContent, String selectedDocContent) {
+	public double performTFIDF(List<String> unSelectedDocsContent, String selectedDocContent) {
 		TFIDFCalculator tfidf = new TFIDFCalculator();
 		for (String unSelectedDocContent : unSelectedDocsContent) {
 			tfidf.addDocumentToCorpus(unSelectedDocContent);
@@ -607,7 +737,7 @@ public class EditorDBDAO implements IEditorDBDAO {
 	}
 
 	@Override
-	public synchronized Map<String, Double> performPMI(String content) {
+	public Map<String, Double> performPMI(String content) {
 		// TODO Auto-generated method stub
 		PMICalculator pmi = new PMICalculator(content);
 		Map<String, Double> pmiScores = pmi.calculatePMIForAllBigrams();
@@ -616,7 +746,7 @@ public class EditorDBDAO implements IEditorDBDAO {
 	}
 
 	@Override
-	public synchronized Map<String, Double> performPKL(String content) {
+	public Map<String, Double> performPKL(String content) {
 		// TODO Auto-generated method stub
 		PKLCalculator pkl = new PKLCalculator(content);
 		Map<String, Double> pklScores = pkl.calculatePKLForAllWords();
@@ -624,13 +754,13 @@ public class EditorDBDAO implements IEditorDBDAO {
 	}
 
 	@Override
-	public synchronized Map<String, String> stemWords(String text) {
+	public Map<String, String> stemWords(String text) {
 		// TODO Auto-generated method stub
 		return Stemmation.stemWords(PreProcessText.preprocessText(text));
 	}
 
 	@Override
-	public synchronized Map<String, String> segmentWords(String text) {
+	public Map<String, String> segmentWords(String text) {
 		// TODO Auto-generated method stub
 		return WordSegmentation.extractSegments(PreProcessText.preprocessText(text));
 	}
@@ -1,9 +1,16 @@
 package dal;
 
+import java.io.Reader;
 import java.util.List;
 import java.util.Map;
 
 import dto.Documents;
+import dto.FileSummary;
+import dto.PageUpdate;
+import dto.Pages;
+import dto.RebalanceResult;
+import dto.SearchMode;
+import dto.SearchResult;
 
 public class FacadeDAO implements IFacadeDAO {
 
@@ -19,7 +26,17 @@ public class FacadeDAO implements IFacadeDAO {
 	}
 
 	@Override
-	public boolean updateFileInDB(int id, String fileName, int pageNumber, String content) {
+	public boolean createFileInDB(String nameOfFile, Reader content) {
+		return mariaDB.createFileInDB(nameOfFile, content);
+	}
+
+	@Override
+	public RebalanceResult rebalancePageInDB(int fileId, int pageNumber) {
+		return mariaDB.rebalancePageInDB(fileId, pageNumber);
+	}
+
+	@Override
+	public PageUpdate updateFileInDB(int id, String fileName, int pageNumber, String content) {
 		return mariaDB.updateFileInDB(id, fileName, pageNumber, content);
 	}
 
@@ -33,6 +50,46 @@ public class FacadeDAO implements IFacadeDAO {
 		return mariaDB.getFilesFromDB();
 	}
 
+	@Override
+	public Documents getFileById(int id) {
+		return mariaDB.getFileById(id);
+	}
+
+	@Override
+	public List<FileSummary> listFileSummaries() {
+		return mariaDB.listFileSummaries();
+	}
+
+	@Override
+	public Map<Integer, String> getLastPageContents() {
+		return mariaDB.getLastPageContents();
+	}
+
+	@Override
+	public List<Pages> getPagesFromDB(int fileId, int firstPage, int lastPage) {
+		return mariaDB.getPagesFromDB(fileId, firstPage, lastPage);
+	}
+
+	@Override
+	public int getPageCountFromDB(int fileId) {
+		return mariaDB.getPageCountFromDB(fileId);
+	}
+
+	@Override
+	public int readCorpus(CorpusReader.PageConsumer consumer) {
+		return mariaDB.readCorpus(consumer);
+	}
+
+	@Override
+	public int readPageHashes(CorpusReader.PageConsumer consumer) {
+		return mariaDB.readPageHashes(consumer);
+	}
+
+	@Override
+	public List<SearchResult> searchByMorphology(String word, SearchMode mode) {
+		return mariaDB.searchByMorphology(word, mode);
+	}
+
 	@Override
 	public String transliterateInDB(int pageId, String arabicText) {
 		// TODO Auto-generated method stub
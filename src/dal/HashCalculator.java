@@ -12,7 +12,7 @@ public class HashCalculator {
 	        return hexHash;
 	    }
 
-	    private static String bytesToHex(byte[] bytes) {
+	    static String bytesToHex(byte[] bytes) {
 	        StringBuilder hexString = new StringBuilder();
 	        for (byte b : bytes) {
 	            int unsignedByte = b & 0xFF;
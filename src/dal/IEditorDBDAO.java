@@ -1,19 +1,72 @@
 package dal;
 
+import java.io.Reader;
 import java.util.List;
 import java.util.Map;
 
 import dto.Documents;
+import dto.FileSummary;
+import dto.PageUpdate;
+import dto.Pages;
+import dto.RebalanceResult;
+import dto.SearchMode;
+import dto.SearchResult;
 
 public interface IEditorDBDAO {
 	boolean createFileInDB(String nameOfFile, String content);
 
-	boolean updateFileInDB(int id, String fileName, int pageNumber, String content);
+	boolean createFileInDB(String nameOfFile, Reader content);
+
+	/**
+	 * Splits the page if it outgrew pagination.pageSize or merges it with a
+	 * neighbour if it shrank below half of it. Returns the page that now
+	 * starts with the page's text and the pages that changed, or null on
+	 * failure.
+	 */
+	RebalanceResult rebalancePageInDB(int fileId, int pageNumber);
+
+	/**
+	 * Saves the text of a page and the file name. Returns what changed, or
+	 * null on failure.
+	 */
+	PageUpdate updateFileInDB(int id, String fileName, int pageNumber, String content);
 
 	boolean deleteFileInDB(int id);
 
 	List<Documents> getFilesFromDB();
 
+	Documents getFileById(int id);
+
+	List<FileSummary> listFileSummaries();
+
+	/**
+	 * The content of the last page of every file, by file id.
+	 */
+	Map<Integer, String> getLastPageContents();
+
+	List<Pages> getPagesFromDB(int fileId, int firstPage, int lastPage);
+
+	int getPageCountFromDB(int fileId);
+
+	/**
+	 * Streams every stored page to the consumer in (fileId, pageNumber)
+	 * order. Returns the number of pages read, or -1 on failure.
+	 */
+	int readCorpus(CorpusReader.PageConsumer consumer);
+
+	/**
+	 * Streams the contentHash of every stored page, null where none was
+	 * stored, in (fileId, pageNumber) order. Returns the number of pages
+	 * read, or -1 on failure.
+	 */
+	int readPageHashes(CorpusReader.PageConsumer consumer);
+
+	/**
+	 * Every page word sharing a root, lemma or stem with the given word, in
+	 * file and page order.
+	 */
+	List<SearchResult> searchByMorphology(String word, SearchMode mode);
+
 	String transliterateInDB(int pageId, String arabicText);
 
 	Map<String, String> lemmatizeWords(String text);
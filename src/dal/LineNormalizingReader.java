@@ -0,0 +1,92 @@
+package dal;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads text the way a BufferedReader.readLine() loop that appends "\n" to
+ * every line rebuilds it: "\r\n" and a lone "\r" become "\n", and text that
+ * does not end with a line break gets one. Imports go through it so a file
+ * stores the same pages and hashes whatever line endings it was saved with.
+ */
+public class LineNormalizingReader extends FilterReader {
+	private boolean pendingCarriageReturn = false;
+	private boolean atLineStart = true;
+	private boolean eof = false;
+
+	public LineNormalizingReader(Reader in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		char[] one = new char[1];
+		int read = read(one, 0, 1);
+		return read < 0 ? -1 : one[0];
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		while (true) {
+			if (eof) {
+				if (atLineStart) {
+					return -1;
+				}
+				cbuf[off] = '\n';
+				atLineStart = true;
+				return 1;
+			}
+			int read = in.read(cbuf, off, len);
+			if (read < 0) {
+				eof = true;
+				continue;
+			}
+			int out = off;
+			for (int i = off; i < off + read; i++) {
+				char ch = cbuf[i];
+				boolean skip = ch == '\n' && pendingCarriageReturn;
+				pendingCarriageReturn = ch == '\r';
+				if (!skip) {
+					cbuf[out++] = ch == '\r' ? '\n' : ch;
+					atLineStart = cbuf[out - 1] == '\n';
+				}
+			}
+			if (out > off) {
+				return out - off;
+			}
+		}
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		char[] skipped = new char[(int) Math.min(n, 8192)];
+		long total = 0;
+		while (total < n) {
+			int read = read(skipped, 0, (int) Math.min(n - total, skipped.length));
+			if (read < 0) {
+				break;
+			}
+			total += read;
+		}
+		return total;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void mark(int readAheadLimit) throws IOException {
+		throw new IOException("mark() not supported");
+	}
+
+	@Override
+	public void reset() throws IOException {
+		throw new IOException("reset() not supported");
+	}
+}
@@ -0,0 +1,78 @@
+package dal;
+
+/**
+ * Open-addressing map from long keys to positive int counts, used for packed
+ * n-gram keys so counting allocates nothing per occurrence. A zero value marks
+ * an empty slot, so only counts of at least one can be stored.
+ */
+class LongIntHashMap {
+	private long[] keys;
+	private int[] values;
+	private int size;
+	private int mask;
+
+	LongIntHashMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Adds one to the count of a key and returns the new count, so a result of
+	 * 1 tells the caller the key was seen for the first time.
+	 */
+	int increment(long key) {
+		int slot = slot(key);
+		if (values[slot] == 0) {
+			keys[slot] = key;
+			values[slot] = 1;
+			if (++size * 2 > keys.length) {
+				resize();
+			}
+			return 1;
+		}
+		return ++values[slot];
+	}
+
+	int get(long key) {
+		return values[slot(key)];
+	}
+
+	int size() {
+		return size;
+	}
+
+	private int slot(long key) {
+		int slot = mix(key) & mask;
+		while (values[slot] != 0 && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void resize() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		mask = keys.length - 1;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != 0) {
+				int slot = slot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private static int mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+}
@@ -0,0 +1,12 @@
+package dal;
+
+import dto.WordAnalysis;
+
+/**
+ * Morphological analyzer used by MorphologyEngine. The implementation is
+ * chosen by analyzer.type in config.properties; MorphologyEngine creates one
+ * instance per worker thread, so implementations need not be thread-safe.
+ */
+public interface MorphAnalyzer {
+	WordAnalysis analyze(String token);
+}
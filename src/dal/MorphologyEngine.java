@@ -0,0 +1,111 @@
+package dal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.WordAnalysis;
+import pl.EditorPO;
+
+/**
+ * Runs the configured MorphAnalyzer once per distinct token and keeps lemma,
+ * root, stem, POS and segmentation together, so the analysis views do not
+ * re-analyze the same text five times. Analyses are cached process-wide by
+ * normalized token and persisted in a MorphologyStore so they survive
+ * restarts.
+ */
+public class MorphologyEngine {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	static final String NOT_FOUND = "Not found";
+	static final String NONE = "None";
+
+	private static MorphologyEngine instance;
+
+	private final AnalysisCache cache;
+	private MorphologyStore store;
+	private final ThreadLocal<MorphAnalyzer> analyzers = ThreadLocal
+			.withInitial(AbstractMorphAnalyzerFactory::createAnalyzer);
+
+	private MorphologyEngine() {
+		this.cache = new AnalysisCache(Configuration.getInt("analysis.cache.size", 100000));
+
+		if (Configuration.getBoolean("analysis.store.enabled", true)) {
+			try {
+				// Keep one store per analyzer so switching analyzer.type never serves stale analyses.
+				File directory = new File(Configuration.getProperty("analysis.store.dir", "morphology"),
+						Configuration.getProperty("analyzer.type", AbstractMorphAnalyzerFactory.DEFAULT_ANALYZER));
+				store = new MorphologyStore(directory, Configuration.getInt("analysis.store.compactThreshold", 5000));
+				final MorphologyStore openedStore = store;
+				Runtime.getRuntime().addShutdownHook(new Thread(openedStore::close));
+			} catch (IOException e) {
+				e.printStackTrace();
+				LOGGER.error("Could not open morphology store: " + e.getMessage());
+			}
+		}
+	}
+
+	public static synchronized MorphologyEngine getInstance() {
+		if (instance == null) {
+			instance = new MorphologyEngine();
+		}
+		return instance;
+	}
+
+	public Map<String, WordAnalysis> analyzeText(String text) {
+		Map<String, WordAnalysis> analyses = new LinkedHashMap<>();
+
+		try {
+			MorphAnalyzer analyzer = analyzers.get();
+
+			if (analyzer != null) {
+				ArabicTokenizer tokens = new ArabicTokenizer(text);
+				while (tokens.next()) {
+					String word = tokens.token();
+					if (!analyses.containsKey(word)) {
+						analyses.put(word, analyzeWord(analyzer, word));
+					}
+				}
+			} else {
+				System.err.println("Failed to initialize the morphological analyzer.");
+				LOGGER.error("Failed to initialize the morphological analyzer.");
+			}
+		} catch (Exception e) {
+			System.err.println("Error while analyzing words: " + e.getMessage());
+			LOGGER.error("Error while analyzing words: " + e.getMessage());
+		}
+
+		return analyses;
+	}
+
+	public AnalysisCache getCache() {
+		return cache;
+	}
+
+	private WordAnalysis analyzeWord(MorphAnalyzer analyzer, String word) {
+		String token = PreProcessText.preprocessText(word);
+
+		WordAnalysis analysis = cache.get(token);
+		if (analysis == null && store != null) {
+			analysis = store.get(token);
+		}
+		if (analysis == null) {
+			analysis = token.isEmpty() ? notFound(token) : analyzer.analyze(token);
+			if (store != null && !token.isEmpty()) {
+				store.put(token, analysis);
+			}
+		}
+		cache.put(token, analysis);
+
+		return new WordAnalysis(word, analysis.getLemma(), analysis.getRoot(), analysis.getStem(), analysis.getPos(),
+				analysis.getSegment());
+	}
+
+	private static WordAnalysis notFound(String token) {
+		return new WordAnalysis(token, NOT_FOUND, NOT_FOUND, NOT_FOUND, Collections.singletonList(NONE), NONE);
+	}
+}
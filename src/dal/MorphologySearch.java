@@ -0,0 +1,112 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dto.SearchMode;
+import dto.SearchResult;
+import dto.WordAnalysis;
+
+/**
+ * Finds the pages holding a word with the same root, lemma or stem as a
+ * query word, from the rows createFileInDB and updateFileInDB keep in
+ * rootextraction, lemmatization and stemmation. Each of those tables has an
+ * index led by its analysis column, so a search is an index seek.
+ */
+public class MorphologySearch {
+	// Width of the indexed VARCHAR word and analysis columns
+	static final int MAX_WORD_LENGTH = 255;
+
+	/**
+	 * Copies the rows whose word and analysis fit the indexed columns. The
+	 * given map is left untouched.
+	 */
+	static Map<String, String> indexable(Map<String, String> rows) {
+		Map<String, String> fitting = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : rows.entrySet()) {
+			if (entry.getKey().length() <= MAX_WORD_LENGTH
+					&& (entry.getValue() == null || entry.getValue().length() <= MAX_WORD_LENGTH)) {
+				fitting.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return fitting;
+	}
+
+	public List<SearchResult> search(Connection conn, SearchMode mode, String word) throws SQLException {
+		List<SearchResult> results = new ArrayList<>();
+		String table = tableOf(mode);
+		String column = columnOf(mode);
+		String key = analysisKey(mode, word);
+		if (key == null || key.isEmpty() || key.length() > MAX_WORD_LENGTH) {
+			return results;
+		}
+
+		String query = "SELECT p.fileId, f.fileName, p.pageNumber, a.word FROM " + table + " a "
+				+ "JOIN pages p ON p.pageId = a.pageId JOIN files f ON f.fileId = p.fileId "
+				+ "WHERE a." + column + " = ? ORDER BY p.fileId, p.pageNumber, a.word";
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setString(1, key);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					results.add(new SearchResult(rs.getInt("fileId"), rs.getString("fileName"),
+							rs.getInt("pageNumber"), rs.getString("word")));
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * The root, lemma or stem of the query word, analyzed the way page words
+	 * are when they are stored.
+	 */
+	static String analysisKey(SearchMode mode, String word) {
+		Map<String, WordAnalysis> analyses = MorphologyEngine.getInstance().analyzeText(word.trim());
+		if (analyses.isEmpty()) {
+			return null;
+		}
+		WordAnalysis analysis = analyses.values().iterator().next();
+		switch (mode) {
+		case ROOT:
+			return analysis.getRoot();
+		case LEMMA:
+			return analysis.getLemma();
+		case STEM:
+			return analysis.getStem();
+		default:
+			throw new IllegalArgumentException("Not a morphology search mode: " + mode);
+		}
+	}
+
+	private static String tableOf(SearchMode mode) {
+		switch (mode) {
+		case ROOT:
+			return "rootextraction";
+		case LEMMA:
+			return "lemmatization";
+		case STEM:
+			return "stemmation";
+		default:
+			throw new IllegalArgumentException("Not a morphology search mode: " + mode);
+		}
+	}
+
+	private static String columnOf(SearchMode mode) {
+		switch (mode) {
+		case ROOT:
+			return "root";
+		case LEMMA:
+			return "lemma";
+		case STEM:
+			return "stem";
+		default:
+			throw new IllegalArgumentException("Not a morphology search mode: " + mode);
+		}
+	}
+}
@@ -0,0 +1,416 @@
+package dal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.WordAnalysis;
+import pl.EditorPO;
+
+/**
+ * On-disk token to analysis dictionary that survives restarts.
+ *
+ * Generation g of the store is a memory-mapped hash table file
+ * (morphology-g.idx) holding everything written before g, plus an append log
+ * (morphology-g.log) for new entries. Opening maps the newest table and
+ * replays only the logs of its generation, so startup cost does not grow with
+ * the dictionary. When the log gets long, a background thread compacts table
+ * and log into generation g + 1 while new writes go to the next log.
+ */
+public class MorphologyStore {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final int MAGIC = 0x4D4F5250;
+	private static final int HEADER_SIZE = 12;
+	private static final char FIELD_SEPARATOR = '\u001F';
+
+	private final File directory;
+	private final int compactThreshold;
+	private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "morphology-store-compactor");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private int generation;
+	private MappedByteBuffer index;
+	private int slotCount;
+	private FileChannel log;
+	private Map<String, String> pending = new HashMap<>();
+	private Map<String, String> compacting = Collections.emptyMap();
+	private boolean compactionRunning;
+
+	public MorphologyStore(File directory, int compactThreshold) throws IOException {
+		this.directory = directory;
+		this.compactThreshold = Math.max(1, compactThreshold);
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create morphology store directory " + directory);
+		}
+		open();
+	}
+
+	private void open() throws IOException {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			files = new File[0];
+		}
+
+		int indexGeneration = 0;
+		for (File file : files) {
+			indexGeneration = Math.max(indexGeneration, generationOf(file.getName(), ".idx"));
+		}
+		if (indexGeneration > 0) {
+			mapIndex(indexFile(indexGeneration));
+		}
+
+		// Logs older than the index are already compacted into it; newer ones are
+		// left over from an interrupted compaction and still need replaying.
+		List<Integer> logGenerations = new ArrayList<>();
+		for (File file : files) {
+			int logGeneration = generationOf(file.getName(), ".log");
+			int fileIndexGeneration = generationOf(file.getName(), ".idx");
+			if (logGeneration >= indexGeneration) {
+				logGenerations.add(logGeneration);
+			} else if (logGeneration >= 0 || (fileIndexGeneration >= 0 && fileIndexGeneration < indexGeneration)
+					|| file.getName().endsWith(".tmp")) {
+				file.delete();
+			}
+		}
+		Collections.sort(logGenerations);
+
+		generation = indexGeneration;
+		for (int logGeneration : logGenerations) {
+			replayLog(logFile(logGeneration));
+			generation = logGeneration;
+		}
+		log = openLog(generation);
+	}
+
+	public synchronized WordAnalysis get(String token) {
+		String value = pending.get(token);
+		if (value == null) {
+			value = compacting.get(token);
+		}
+		if (value == null && index != null) {
+			value = lookupIndex(token);
+		}
+		return value == null ? null : decode(token, value);
+	}
+
+	public synchronized void put(String token, WordAnalysis analysis) {
+		String value = encode(analysis);
+		if (value.equals(pending.get(token))) {
+			return;
+		}
+		try {
+			appendToLog(token, value);
+			pending.put(token, value);
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return;
+		}
+		if (pending.size() >= compactThreshold && !compactionRunning) {
+			startCompaction();
+		}
+	}
+
+	public synchronized void close() {
+		compactor.shutdown();
+		try {
+			log.force(false);
+			log.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+	}
+
+	private void startCompaction() {
+		try {
+			final int nextGeneration = generation + 1;
+			final MappedByteBuffer currentIndex = index;
+			final int currentSlotCount = slotCount;
+			final int previousGeneration = generation;
+
+			log.force(false);
+			log.close();
+			log = openLog(nextGeneration);
+			generation = nextGeneration;
+			compacting = pending;
+			pending = new HashMap<>();
+			compactionRunning = true;
+
+			final Map<String, String> toCompact = compacting;
+			compactor.submit(() -> compact(previousGeneration, currentIndex, currentSlotCount, toCompact,
+					nextGeneration));
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+	}
+
+	private void compact(int previousGeneration, MappedByteBuffer previousIndex, int previousSlotCount,
+			Map<String, String> entries, int nextGeneration) {
+		long start = System.currentTimeMillis();
+		try {
+			Map<String, String> merged = new HashMap<>();
+			if (previousIndex != null) {
+				readIndexEntries(previousIndex, previousSlotCount, merged);
+			}
+			merged.putAll(entries);
+
+			File target = indexFile(nextGeneration);
+			File temp = new File(directory, target.getName() + ".tmp");
+			writeIndex(temp, merged);
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+
+			synchronized (this) {
+				mapIndex(target);
+				compacting = Collections.emptyMap();
+				compactionRunning = false;
+			}
+			// Best effort: a still-mapped file cannot be deleted on Windows and is removed on the next start.
+			indexFile(previousGeneration).delete();
+			logFile(previousGeneration).delete();
+			LOGGER.info("Compacted morphology store to generation " + nextGeneration + " with " + merged.size()
+					+ " entries in " + (System.currentTimeMillis() - start) + " ms");
+		} catch (IOException e) {
+			synchronized (this) {
+				// The entries are still in the previous log, which stays on disk until a later compaction.
+				Map<String, String> restored = new HashMap<>(compacting);
+				restored.putAll(pending);
+				pending = restored;
+				compacting = Collections.emptyMap();
+				compactionRunning = false;
+			}
+			e.printStackTrace();
+			LOGGER.error("Morphology store compaction failed: " + e.getMessage());
+		}
+	}
+
+	private FileChannel openLog(int logGeneration) throws IOException {
+		return FileChannel.open(logFile(logGeneration).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+	}
+
+	private void appendToLog(String token, String value) throws IOException {
+		byte[] key = token.getBytes(StandardCharsets.UTF_8);
+		byte[] data = value.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer record = ByteBuffer.allocate(8 + key.length + data.length);
+		record.putInt(key.length).put(key).putInt(data.length).put(data);
+		record.flip();
+		while (record.hasRemaining()) {
+			log.write(record);
+		}
+	}
+
+	private void replayLog(File file) throws IOException {
+		if (!file.exists()) {
+			return;
+		}
+		long validLength = 0;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+			long size = channel.size();
+			if (size == 0) {
+				return;
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			while (buffer.remaining() >= 4) {
+				int keyLength = buffer.getInt();
+				if (keyLength < 0 || buffer.remaining() < keyLength + 4) {
+					break;
+				}
+				byte[] key = new byte[keyLength];
+				buffer.get(key);
+				int valueLength = buffer.getInt();
+				if (valueLength < 0 || buffer.remaining() < valueLength) {
+					break;
+				}
+				byte[] value = new byte[valueLength];
+				buffer.get(value);
+				pending.put(new String(key, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8));
+				validLength = buffer.position();
+			}
+			if (validLength < size) {
+				// Drop a record torn by a crash mid-write.
+				LOGGER.warn("Truncating damaged morphology log " + file + " at " + validLength);
+				channel.truncate(validLength);
+			}
+		}
+	}
+
+	private void mapIndex(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt(0) != MAGIC) {
+				throw new IOException("Not a morphology index: " + file);
+			}
+			slotCount = buffer.getInt(4);
+			index = buffer;
+		}
+	}
+
+	private String lookupIndex(String token) {
+		byte[] key = token.getBytes(StandardCharsets.UTF_8);
+		int mask = slotCount - 1;
+		int slot = mix(token.hashCode()) & mask;
+		for (int probes = 0; probes < slotCount; probes++) {
+			int offset = index.getInt(HEADER_SIZE + slot * 4);
+			if (offset == 0) {
+				return null;
+			}
+			int keyLength = index.getShort(offset) & 0xFFFF;
+			if (keyLength == key.length && keyMatches(offset + 2, key)) {
+				int valueOffset = offset + 2 + keyLength;
+				byte[] value = new byte[index.getInt(valueOffset)];
+				ByteBuffer view = index.duplicate();
+				view.position(valueOffset + 4);
+				view.get(value);
+				return new String(value, StandardCharsets.UTF_8);
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	private boolean keyMatches(int offset, byte[] key) {
+		for (int i = 0; i < key.length; i++) {
+			if (index.get(offset + i) != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void readIndexEntries(MappedByteBuffer buffer, int slots, Map<String, String> target) {
+		ByteBuffer view = buffer.duplicate();
+		view.position(HEADER_SIZE + slots * 4);
+		while (view.remaining() > 0) {
+			byte[] key = new byte[view.getShort() & 0xFFFF];
+			view.get(key);
+			byte[] value = new byte[view.getInt()];
+			view.get(value);
+			target.put(new String(key, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8));
+		}
+	}
+
+	private static void writeIndex(File file, Map<String, String> entries) throws IOException {
+		int slots = 16;
+		while (slots < entries.size() * 2) {
+			slots <<= 1;
+		}
+		int[] table = new int[slots];
+		int mask = slots - 1;
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+			channel.truncate(0);
+			long position = HEADER_SIZE + (long) slots * 4;
+			ByteBuffer record = ByteBuffer.allocate(64 * 1024);
+			for (Map.Entry<String, String> entry : entries.entrySet()) {
+				byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+				byte[] value = entry.getValue().getBytes(StandardCharsets.UTF_8);
+				if (key.length > 0xFFFF) {
+					continue;
+				}
+				if (position + 6 + key.length + value.length > Integer.MAX_VALUE) {
+					throw new IOException("Morphology index exceeds 2 GB");
+				}
+				int slot = mix(entry.getKey().hashCode()) & mask;
+				while (table[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = (int) position;
+
+				int recordLength = 6 + key.length + value.length;
+				if (record.remaining() < recordLength) {
+					record.flip();
+					channel.write(record, position - record.limit());
+					record.clear();
+				}
+				if (record.capacity() < recordLength) {
+					ByteBuffer large = ByteBuffer.allocate(recordLength);
+					large.putShort((short) key.length).put(key).putInt(value.length).put(value).flip();
+					channel.write(large, position);
+				} else {
+					record.putShort((short) key.length).put(key).putInt(value.length).put(value);
+				}
+				position += recordLength;
+			}
+			record.flip();
+			channel.write(record, position - record.limit());
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + slots * 4);
+			header.putInt(MAGIC).putInt(slots).putInt(entries.size());
+			for (int offset : table) {
+				header.putInt(offset);
+			}
+			header.flip();
+			channel.write(header, 0);
+			channel.force(true);
+		}
+	}
+
+	private static String encode(WordAnalysis analysis) {
+		StringBuilder builder = new StringBuilder();
+		builder.append(analysis.getLemma()).append(FIELD_SEPARATOR);
+		builder.append(analysis.getRoot()).append(FIELD_SEPARATOR);
+		builder.append(analysis.getStem()).append(FIELD_SEPARATOR);
+		builder.append(String.join("|", analysis.getPos())).append(FIELD_SEPARATOR);
+		builder.append(analysis.getSegment());
+		return builder.toString();
+	}
+
+	private static WordAnalysis decode(String token, String value) {
+		String[] fields = value.split(String.valueOf(FIELD_SEPARATOR), -1);
+		if (fields.length != 5) {
+			return null;
+		}
+		List<String> pos = Collections.unmodifiableList(Arrays.asList(fields[3].split("\\|")));
+		return new WordAnalysis(token, fields[0], fields[1], fields[2], pos, fields[4]);
+	}
+
+	private static int mix(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		return hash;
+	}
+
+	private File indexFile(int fileGeneration) {
+		return new File(directory, "morphology-" + fileGeneration + ".idx");
+	}
+
+	private File logFile(int fileGeneration) {
+		return new File(directory, "morphology-" + fileGeneration + ".log");
+	}
+
+	private static int generationOf(String fileName, String extension) {
+		if (!fileName.startsWith("morphology-") || !fileName.endsWith(extension)) {
+			return -1;
+		}
+		try {
+			return Integer.parseInt(fileName.substring("morphology-".length(), fileName.length() - extension.length()));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
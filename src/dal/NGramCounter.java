@@ -0,0 +1,157 @@
+package dal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Shared counting core for PMICalculator and PKLCalculator. Tokens are
+ * interned to int ids straight from the text's offsets, unigram counts live
+ * in an int array and bigrams are counted under packed long keys, so strings
+ * are only built for distinct tokens and for the n-grams a caller reports.
+ */
+class NGramCounter {
+	private static final int TRIGRAM_ID_BITS = 21;
+
+	private final List<String> vocabulary = new ArrayList<>();
+	private int[] idTable = emptyTable(64);
+	private int[] sequence = new int[16];
+	private int size;
+	private int[] unigramCounts = new int[16];
+	private final LongIntHashMap bigramCounts;
+	private long[] distinctBigrams;
+	private int distinctBigramCount;
+
+	NGramCounter(CharSequence text) {
+		ArabicTokenizer tokens = new ArabicTokenizer(text);
+		while (tokens.next()) {
+			int id = intern(tokens);
+			if (size == sequence.length) {
+				sequence = Arrays.copyOf(sequence, size * 2);
+			}
+			sequence[size++] = id;
+			unigramCounts[id]++;
+		}
+
+		bigramCounts = new LongIntHashMap(size);
+		distinctBigrams = new long[16];
+		for (int i = 0; i < size - 1; i++) {
+			long key = pack(sequence[i], sequence[i + 1]);
+			if (bigramCounts.increment(key) == 1) {
+				if (distinctBigramCount == distinctBigrams.length) {
+					distinctBigrams = Arrays.copyOf(distinctBigrams, distinctBigramCount * 2);
+				}
+				distinctBigrams[distinctBigramCount++] = key;
+			}
+		}
+	}
+
+	private int intern(ArabicTokenizer tokens) {
+		int mask = idTable.length - 1;
+		int slot = spread(tokens.tokenHash()) & mask;
+		while (idTable[slot] >= 0) {
+			if (tokens.tokenEquals(vocabulary.get(idTable[slot]), false)) {
+				return idTable[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		int id = vocabulary.size();
+		vocabulary.add(tokens.token());
+		idTable[slot] = id;
+		if (id == unigramCounts.length) {
+			unigramCounts = Arrays.copyOf(unigramCounts, id * 2);
+		}
+		if (vocabulary.size() * 2 > idTable.length) {
+			rehash();
+		}
+		return id;
+	}
+
+	private void rehash() {
+		idTable = emptyTable(idTable.length * 2);
+		int mask = idTable.length - 1;
+		for (int id = 0; id < vocabulary.size(); id++) {
+			int slot = spread(vocabulary.get(id).hashCode()) & mask;
+			while (idTable[slot] >= 0) {
+				slot = (slot + 1) & mask;
+			}
+			idTable[slot] = id;
+		}
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private static int[] emptyTable(int capacity) {
+		int[] table = new int[capacity];
+		Arrays.fill(table, -1);
+		return table;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int tokenAt(int position) {
+		return sequence[position];
+	}
+
+	int idOf(String word) {
+		int mask = idTable.length - 1;
+		int slot = spread(word.hashCode()) & mask;
+		while (idTable[slot] >= 0) {
+			if (vocabulary.get(idTable[slot]).equals(word)) {
+				return idTable[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	String word(int id) {
+		return vocabulary.get(id);
+	}
+
+	int unigramCount(int id) {
+		return id < 0 ? 0 : unigramCounts[id];
+	}
+
+	int bigramCount(int first, int second) {
+		return first < 0 || second < 0 ? 0 : bigramCounts.get(pack(first, second));
+	}
+
+	/** Number of distinct bigrams, in the order of their first occurrence. */
+	int distinctBigramCount() {
+		return distinctBigramCount;
+	}
+
+	long distinctBigram(int index) {
+		return distinctBigrams[index];
+	}
+
+	/**
+	 * Whether trigram ids fit in one long key; beyond two million distinct
+	 * tokens callers fall back to string keys.
+	 */
+	boolean canPackTrigrams() {
+		return vocabulary.size() <= (1 << TRIGRAM_ID_BITS);
+	}
+
+	static long pack(int first, int second) {
+		return ((long) first << 32) | (second & 0xFFFFFFFFL);
+	}
+
+	static int first(long key) {
+		return (int) (key >>> 32);
+	}
+
+	static int second(long key) {
+		return (int) key;
+	}
+
+	static long packTrigram(int left, int middle, int right) {
+		return ((long) left << (2 * TRIGRAM_ID_BITS)) | ((long) middle << TRIGRAM_ID_BITS) | right;
+	}
+}
@@ -1,35 +1,28 @@
 package dal;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class PKLCalculator {
     private String document;
-    private Map<String, Integer> wordFreq;
+    private NGramCounter counter;
     private int totalWords;
 
     public PKLCalculator(String document) {
         this.document = PreProcessText.preprocessText(document);
-        this.wordFreq = new HashMap<>();
-        this.totalWords = 0;
-        computeWordFrequencies();
+        this.counter = new NGramCounter(this.document);
+        this.totalWords = counter.size();
     }
 
-    private void computeWordFrequencies() {
-        String[] words = document.split("\\s+");
-        totalWords = words.length;
-
-        for (String word : words) {
-            wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
-        }
+    private double calculateWordProbability(int word) {
+        return (double) counter.unigramCount(word) / totalWords;
     }
 
-    private double calculateWordProbability(String word) {
-        return (double) wordFreq.getOrDefault(word, 0) / totalWords;
+    public double calculatePKL(String v, String ul, String ur) {
+        return calculatePKL(counter.idOf(v), counter.idOf(ul), counter.idOf(ur));
     }
 
-    public double calculatePKL(String v, String ul, String ur) {
+    private double calculatePKL(int v, int ul, int ur) {
         double pV = calculateWordProbability(v);
         double pUl = calculateWordProbability(ul);
         double pUr = calculateWordProbability(ur);
@@ -43,15 +36,22 @@ public class PKLCalculator {
 
     public Map<String, Double> calculatePKLForAllWords() {
         Map<String, Double> pklScores = new LinkedHashMap<>();
-        String[] words = document.split("\\s+");
+        boolean packed = counter.canPackTrigrams();
+        LongIntHashMap seen = new LongIntHashMap(packed ? counter.size() : 0);
 
-        for (int i = 1; i < words.length - 1; i++) {
-            String ul = words[i - 1];
-            String v = words[i];
-            String ur = words[i + 1];
+        for (int i = 1; i < counter.size() - 1; i++) {
+            int ul = counter.tokenAt(i - 1);
+            int v = counter.tokenAt(i);
+            int ur = counter.tokenAt(i + 1);
 
-            double pkl = calculatePKL(v, ul, ur);
-            pklScores.put(v + " (" + ul + ", " + ur + ")", pkl);
+            // The score depends only on the triple, so each distinct one is built once
+            if (packed && seen.increment(NGramCounter.packTrigram(ul, v, ur)) > 1) {
+                continue;
+            }
+            String key = counter.word(v) + " (" + counter.word(ul) + ", " + counter.word(ur) + ")";
+            if (!pklScores.containsKey(key)) {
+                pklScores.put(key, calculatePKL(v, ul, ur));
+            }
         }
 
         return pklScores;
@@ -1,47 +1,32 @@
 package dal;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class PMICalculator {
     private String document;
-    private Map<String, Integer> wordFreq;
-    private Map<String, Integer> bigramFreq;
+    private NGramCounter counter;
     private int totalWords;
 
     public PMICalculator(String document) {
         this.document = PreProcessText.preprocessText(document);
-        this.wordFreq = new HashMap<>();
-        this.bigramFreq = new HashMap<>();
-        this.totalWords = 0;
-        computeWordAndBigramFrequencies();
+        this.counter = new NGramCounter(this.document);
+        this.totalWords = counter.size();
     }
 
-    private void computeWordAndBigramFrequencies() {
-        String[] words = document.split("\\s+");
-        totalWords = words.length;
-
-        for (String word : words) {
-            wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
-        }
-
-        for (int i = 0; i < words.length - 1; i++) {
-            String bigram = words[i] + " " + words[i + 1];
-            bigramFreq.put(bigram, bigramFreq.getOrDefault(bigram, 0) + 1);
-        }
+    private double calculateWordProbability(int word) {
+        return (double) counter.unigramCount(word) / totalWords;
     }
 
-    private double calculateWordProbability(String word) {
-        return (double) wordFreq.getOrDefault(word, 0) / totalWords;
+    private double calculateBigramProbability(int word1, int word2) {
+        return (double) counter.bigramCount(word1, word2) / totalWords;
     }
 
-    private double calculateBigramProbability(String word1, String word2) {
-        String bigram = word1 + " " + word2;
-        return (double) bigramFreq.getOrDefault(bigram, 0) / totalWords;
+    public double calculatePMI(String word1, String word2) {
+        return calculatePMI(counter.idOf(word1), counter.idOf(word2));
     }
 
-    public double calculatePMI(String word1, String word2) {
+    private double calculatePMI(int word1, int word2) {
         double probWord1 = calculateWordProbability(word1);
         double probWord2 = calculateWordProbability(word2);
         double probBigram = calculateBigramProbability(word1, word2);
@@ -55,15 +40,14 @@ public class PMICalculator {
 
     public Map<String, Double> calculatePMIForAllBigrams() {
         Map<String, Double> pmiScores = new LinkedHashMap<>();
-        String[] words = document.split("\\s+");
 
-        for (int i = 0; i < words.length - 1; i++) {
-            String word1 = words[i];
-            String word2 = words[i + 1];
-            String bigram = word1 + " " + word2;
+        for (int i = 0; i < counter.distinctBigramCount(); i++) {
+            long bigram = counter.distinctBigram(i);
+            int word1 = NGramCounter.first(bigram);
+            int word2 = NGramCounter.second(bigram);
 
             double pmiScore = calculatePMI(word1, word2);
-            pmiScores.put(bigram, pmiScore);
+            pmiScores.put(counter.word(word1) + " " + counter.word(word2), pmiScore);
         }
 
         return pmiScores;
@@ -0,0 +1,78 @@
+package dal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import dto.WordAnalysis;
+
+/**
+ * Everything createFileInDB stores for one page, computed without touching
+ * the database so pages can be analyzed on worker threads. The maps are
+ * read-only, since AnalyzedDocument hands them out to every writer.
+ */
+public class PageAnalysis {
+	private final String transliteration;
+	private final Map<String, List<String>> posTags;
+	private final Map<String, String> lemmas;
+	private final Map<String, String> roots;
+	private final Map<String, String> segments;
+	private final Map<String, String> stems;
+	private final Map<String, Double> pklScores;
+	private final Map<String, Double> pmiScores;
+
+	private PageAnalysis(String transliteration, Map<String, List<String>> posTags, Map<String, String> lemmas,
+			Map<String, String> roots, Map<String, String> segments, Map<String, String> stems,
+			Map<String, Double> pklScores, Map<String, Double> pmiScores) {
+		this.transliteration = transliteration;
+		this.posTags = Collections.unmodifiableMap(posTags);
+		this.lemmas = Collections.unmodifiableMap(lemmas);
+		this.roots = Collections.unmodifiableMap(roots);
+		this.segments = Collections.unmodifiableMap(segments);
+		this.stems = Collections.unmodifiableMap(stems);
+		this.pklScores = Collections.unmodifiableMap(pklScores);
+		this.pmiScores = Collections.unmodifiableMap(pmiScores);
+	}
+
+	public static PageAnalysis analyze(String content) {
+		Map<String, WordAnalysis> analyses = MorphologyEngine.getInstance().analyzeText(content);
+
+		return new PageAnalysis(Transliteration.transliterate(content), POSTagger.extractPOS(analyses),
+				Lemmatization.lemmatizeWords(analyses), RootExtraction.extractRoots(analyses),
+				WordSegmentation.extractSegments(analyses), Stemmation.stemWords(analyses),
+				new PKLCalculator(content).calculatePKLForAllWords(),
+				new PMICalculator(content).calculatePMIForAllBigrams());
+	}
+
+	public String getTransliteration() {
+		return transliteration;
+	}
+
+	public Map<String, List<String>> getPosTags() {
+		return posTags;
+	}
+
+	public Map<String, String> getLemmas() {
+		return lemmas;
+	}
+
+	public Map<String, String> getRoots() {
+		return roots;
+	}
+
+	public Map<String, String> getSegments() {
+		return segments;
+	}
+
+	public Map<String, String> getStems() {
+		return stems;
+	}
+
+	public Map<String, Double> getPklScores() {
+		return pklScores;
+	}
+
+	public Map<String, Double> getPmiScores() {
+		return pmiScores;
+	}
+}
@@ -0,0 +1,42 @@
+package dal;
+
+import java.util.TreeSet;
+
+/**
+ * Hashes of the inputs each statistic family reads from a page, so an update
+ * can tell which stored rows are still valid. The content hash covers the raw
+ * text, the vocabulary hash covers the distinct words the morphology tables
+ * are keyed on, and the token hash covers the preprocessed word sequence PKL,
+ * PMI and TF-IDF are computed from.
+ */
+public class PageFingerprint {
+	private final String contentHash;
+	private final String vocabularyHash;
+	private final String tokenHash;
+
+	private PageFingerprint(String contentHash, String vocabularyHash, String tokenHash) {
+		this.contentHash = contentHash;
+		this.vocabularyHash = vocabularyHash;
+		this.tokenHash = tokenHash;
+	}
+
+	public static PageFingerprint of(String content) throws Exception {
+		String vocabulary = String.join(" ", new TreeSet<>(ArabicTokenizer.tokens(content)));
+		String tokens = String.join(" ", ArabicTokenizer.tokens(PreProcessText.preprocessText(content)));
+
+		return new PageFingerprint(HashCalculator.calculateHash(content), HashCalculator.calculateHash(vocabulary),
+				HashCalculator.calculateHash(tokens));
+	}
+
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	public String getVocabularyHash() {
+		return vocabularyHash;
+	}
+
+	public String getTokenHash() {
+		return tokenHash;
+	}
+}
@@ -0,0 +1,97 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Brings the word rows of one page in an analysis table (pos, lemmatization,
+ * pkl, ...) in line with a freshly computed word to value map. Stored rows
+ * are matched on word; only words that appeared, disappeared or got a
+ * different value are written, and existing rows are addressed by id. Runs
+ * on the caller's connection and transaction.
+ */
+public class PageRowDelta {
+	private int inserted;
+	private int updated;
+	private int deleted;
+
+	public <V> void apply(Connection conn, String table, String column, int pageId, Map<String, V> values,
+			Class<V> type) throws SQLException {
+		Map<String, V> pending = new HashMap<>(values);
+		List<Integer> deletes = new ArrayList<>();
+		Map<Integer, V> updates = new HashMap<>();
+
+		try (PreparedStatement stmt = conn
+				.prepareStatement("SELECT id, word, " + column + " FROM " + table + " WHERE pageId = ?")) {
+			stmt.setInt(1, pageId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					String word = rs.getString("word");
+					// A word missing from the map, or stored twice, loses its row
+					if (!pending.containsKey(word)) {
+						deletes.add(rs.getInt("id"));
+						continue;
+					}
+					V value = pending.remove(word);
+					if (!Objects.equals(value, rs.getObject(column, type))) {
+						updates.put(rs.getInt("id"), value);
+					}
+				}
+			}
+		}
+
+		if (!deletes.isEmpty()) {
+			try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+				for (int id : deletes) {
+					stmt.setInt(1, id);
+					stmt.addBatch();
+				}
+				stmt.executeBatch();
+			}
+		}
+
+		if (!updates.isEmpty()) {
+			try (PreparedStatement stmt = conn
+					.prepareStatement("UPDATE " + table + " SET " + column + " = ? WHERE id = ?")) {
+				for (Map.Entry<Integer, V> entry : updates.entrySet()) {
+					stmt.setObject(1, entry.getValue());
+					stmt.setInt(2, entry.getKey());
+					stmt.addBatch();
+				}
+				stmt.executeBatch();
+			}
+		}
+
+		if (!pending.isEmpty()) {
+			try (PreparedStatement stmt = conn.prepareStatement(
+					"INSERT INTO " + table + " (pageId, word, " + column + ") VALUES (?, ?, ?)")) {
+				// Insert in the analysis order rather than hash order
+				for (Map.Entry<String, V> entry : values.entrySet()) {
+					if (pending.containsKey(entry.getKey())) {
+						stmt.setInt(1, pageId);
+						stmt.setString(2, entry.getKey());
+						stmt.setObject(3, entry.getValue());
+						stmt.addBatch();
+					}
+				}
+				stmt.executeBatch();
+			}
+		}
+
+		inserted += pending.size();
+		updated += updates.size();
+		deleted += deletes.size();
+	}
+
+	@Override
+	public String toString() {
+		return "PageRowDelta[inserted=" + inserted + ", updated=" + updated + ", deleted=" + deleted + "]";
+	}
+}
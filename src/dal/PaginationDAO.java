@@ -1,5 +1,6 @@
 package dal;
 
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -9,24 +10,8 @@ public class PaginationDAO {
 
 	
 	static List<Pages> paginate(String fileContent){
-		int pageSize = 100;
-		int pageNumber = 1;
-		String pageContent = "";
 		List<Pages> pages = new ArrayList<Pages>();
-		if(fileContent==null || fileContent.isEmpty())
-		{
-			pages.add(new Pages(0, 0, pageNumber, pageContent.toString()));
-			return pages;
-		}
-		for(int i = 0; i < fileContent.length(); i++)
-		{
-			pageContent += fileContent.charAt(i);
-			if (pageContent.length() == pageSize || i == fileContent.length() - 1){
-				pages.add(new Pages(0, 0, pageNumber, pageContent));
-				pageNumber++;
-				pageContent = "";
-			}
-		}
+		new Paginator(new StringReader(fileContent == null ? "" : fileContent)).forEachRemaining(pages::add);
 		return pages;
 	} 
 }
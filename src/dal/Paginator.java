@@ -0,0 +1,105 @@
+package dal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import dto.Pages;
+
+/**
+ * Splits text read from a Reader into pages of at most pageSize chars, one
+ * page at a time. A page ends after the last sentence end in its second half,
+ * or failing that after the last whitespace there, so words are not cut; only
+ * a run of more than pageSize / 2 chars without whitespace is split. The
+ * pages concatenate back to the exact input, and empty input yields one empty
+ * page.
+ */
+public class Paginator implements Iterator<Pages> {
+	private final Reader reader;
+	private final char[] buffer;
+	private int length = 0;
+	private boolean eof = false;
+	private int pageNumber = 0;
+
+	public Paginator(Reader reader) {
+		this(reader, Configuration.getInt("pagination.pageSize", 100));
+	}
+
+	public Paginator(Reader reader, int pageSize) {
+		this.reader = reader;
+		this.buffer = new char[Math.max(2, pageSize)];
+	}
+
+	@Override
+	public boolean hasNext() {
+		fill();
+		return length > 0 || pageNumber == 0;
+	}
+
+	@Override
+	public Pages next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		int cut = length < buffer.length ? length : findBreak();
+		String content = new String(buffer, 0, cut);
+		System.arraycopy(buffer, cut, buffer, 0, length - cut);
+		length -= cut;
+		return new Pages(0, 0, ++pageNumber, content);
+	}
+
+	private void fill() {
+		try {
+			while (!eof && length < buffer.length) {
+				int read = reader.read(buffer, length, buffer.length - length);
+				if (read < 0) {
+					eof = true;
+				} else {
+					length += read;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// Every break lands in the second half, so each char is copied at most twice
+	private int findBreak() {
+		int min = buffer.length / 2;
+		for (int i = length - 1; i >= min; i--) {
+			if (isSentenceEnd(i)) {
+				return skipWhitespace(i + 1);
+			}
+		}
+		for (int i = length - 1; i >= min; i--) {
+			if (ArabicTokenizer.isWhitespace(buffer[i])) {
+				return i + 1;
+			}
+		}
+		return Character.isHighSurrogate(buffer[length - 1]) ? length - 1 : length;
+	}
+
+	private boolean isSentenceEnd(int i) {
+		switch (buffer[i]) {
+		case '\n':
+			return true;
+		case '.':
+		case '!':
+		case '?':
+		case '؟':
+		case '۔':
+			return i + 1 < length && ArabicTokenizer.isWhitespace(buffer[i + 1]);
+		default:
+			return false;
+		}
+	}
+
+	private int skipWhitespace(int from) {
+		while (from < length && ArabicTokenizer.isWhitespace(buffer[from])) {
+			from++;
+		}
+		return from;
+	}
+}
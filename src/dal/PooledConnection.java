@@ -0,0 +1,237 @@
+package dal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One physical connection owned by the DatabaseConnection pool. Each borrow
+ * hands out a fresh proxy whose close() returns the connection to the pool
+ * and which refuses further use afterwards. prepareStatement(sql) and
+ * prepareStatement(sql, autoGeneratedKeys) are served from a per-connection
+ * LRU cache; closing a cached statement only resets it. The other overloads
+ * always prepare a fresh statement, for SQL that is not worth keeping.
+ */
+class PooledConnection {
+	private final DatabaseConnection pool;
+	private final Connection physical;
+	private final int generation;
+	private final long createdAt;
+	private final int statementCacheSize;
+	private final Map<String, CachedStatement> statements;
+	private volatile long lastReleasedAt;
+
+	PooledConnection(DatabaseConnection pool, Connection physical, int generation, int statementCacheSize) {
+		this.pool = pool;
+		this.physical = physical;
+		this.generation = generation;
+		this.statementCacheSize = statementCacheSize;
+		this.createdAt = System.currentTimeMillis();
+		this.lastReleasedAt = createdAt;
+		this.statements = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	int getGeneration() {
+		return generation;
+	}
+
+	long getCreatedAt() {
+		return createdAt;
+	}
+
+	long getLastReleasedAt() {
+		return lastReleasedAt;
+	}
+
+	boolean isValid(int timeoutSeconds) {
+		try {
+			return physical.isValid(timeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	Connection lease() {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+				new Lease());
+	}
+
+	/**
+	 * Puts the connection back into a clean state for the next borrower.
+	 * Returns false if that failed and the connection should be discarded.
+	 */
+	boolean reset() {
+		try {
+			for (CachedStatement statement : statements.values()) {
+				if (statement.inUse) {
+					statement.release();
+				}
+			}
+			if (!physical.getAutoCommit()) {
+				physical.rollback();
+				physical.setAutoCommit(true);
+			}
+			lastReleasedAt = System.currentTimeMillis();
+			return true;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	void closePhysical() {
+		for (CachedStatement statement : statements.values()) {
+			statement.closePhysical();
+		}
+		statements.clear();
+		try {
+			physical.close();
+		} catch (SQLException e) {
+			// Already broken; nothing left to release
+		}
+	}
+
+	private PreparedStatement prepare(Connection handle, String sql, int autoGeneratedKeys) throws SQLException {
+		if (statementCacheSize <= 0) {
+			return physical.prepareStatement(sql, autoGeneratedKeys);
+		}
+
+		String key = autoGeneratedKeys + ":" + sql;
+		CachedStatement cached = statements.get(key);
+		if (cached != null && cached.inUse) {
+			// Same SQL still open in this borrow; hand out a private one
+			return physical.prepareStatement(sql, autoGeneratedKeys);
+		}
+		if (cached == null) {
+			cached = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys));
+			statements.put(key, cached);
+			evictStatements();
+		}
+		cached.inUse = true;
+		return cached.proxy(handle);
+	}
+
+	private void evictStatements() {
+		Iterator<CachedStatement> iterator = statements.values().iterator();
+		while (statements.size() > statementCacheSize && iterator.hasNext()) {
+			CachedStatement eldest = iterator.next();
+			if (!eldest.inUse) {
+				eldest.closePhysical();
+				iterator.remove();
+			}
+		}
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private class Lease implements InvocationHandler {
+		private boolean returned = false;
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+
+			if (name.equals("close")) {
+				if (!returned) {
+					returned = true;
+					pool.release(PooledConnection.this);
+				}
+				return null;
+			}
+			if (name.equals("isClosed")) {
+				return returned || physical.isClosed();
+			}
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			if (name.equals("toString")) {
+				return "PooledConnection[" + physical + "]";
+			}
+			if (returned) {
+				throw new SQLException("Connection has already been returned to the pool");
+			}
+			if (name.equals("prepareStatement") && args.length == 1) {
+				return prepare((Connection) proxy, (String) args[0], java.sql.Statement.NO_GENERATED_KEYS);
+			}
+			if (name.equals("prepareStatement") && args.length == 2 && args[1] instanceof Integer) {
+				return prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+			}
+			return PooledConnection.invoke(physical, method, args);
+		}
+	}
+
+	private static class CachedStatement {
+		private final PreparedStatement physical;
+		private boolean inUse;
+		private Object owner;
+
+		CachedStatement(PreparedStatement physical) {
+			this.physical = physical;
+		}
+
+		PreparedStatement proxy(Connection handle) {
+			// Only the latest proxy may release the statement, so a stale one closed late cannot reset it
+			PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+					PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class },
+					(proxy, method, args) -> {
+						switch (method.getName()) {
+						case "close":
+							if (owner == proxy && inUse) {
+								release();
+							}
+							return null;
+						case "isClosed":
+							return owner != proxy;
+						case "getConnection":
+							return handle;
+						case "equals":
+							return proxy == args[0];
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						default:
+							if (owner != proxy) {
+								throw new SQLException("Statement has already been closed");
+							}
+							return PooledConnection.invoke(physical, method, args);
+						}
+					});
+			owner = statement;
+			return statement;
+		}
+
+		private void release() throws SQLException {
+			ResultSet open = physical.getResultSet();
+			if (open != null) {
+				open.close();
+			}
+			physical.clearBatch();
+			physical.clearParameters();
+			inUse = false;
+			owner = null;
+		}
+
+		void closePhysical() {
+			try {
+				physical.close();
+			} catch (SQLException e) {
+				// Closing the connection releases it anyway
+			}
+		}
+	}
+}
@@ -1,17 +1,62 @@
 package dal;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
-
+/**
+ * Normalizes text for analysis in one pass over a precomputed class table:
+ * harakat and every character outside the Arabic script are dropped, and
+ * whitespace is kept so tokens stay apart. Optional folds, switched on in
+ * config.properties, map alef variants to bare alef, ta marbuta to ha and
+ * alef maqsura to ya. Tatweel is not in the Arabic script, so it is always
+ * dropped.
+ */
 public class PreProcessText {
-	private static final Set<Character> DIACRITICS = new HashSet<>(
-			Arrays.asList('َ', 'ً', 'ُ', 'ٌ', 'ِ', 'ٍ', 'ْ', 'ّ'));
+	private static final char DROP = '\0';
+	private static final char SURROGATE = '\uFFFF';
+	private static final int MAX_RETAINED_BUFFER = 1 << 20;
+
+	private static final char[] DIACRITICS = { 'َ', 'ً', 'ُ', 'ٌ', 'ِ', 'ٍ', 'ْ', 'ّ' };
+
+	// What each BMP char becomes: itself, a folded letter, DROP or SURROGATE
+	private static final char[] NORMALIZED = buildTable(Configuration.getBoolean("preprocess.normalizeAlef", false),
+			Configuration.getBoolean("preprocess.normalizeTaMarbuta", false),
+			Configuration.getBoolean("preprocess.normalizeAlefMaqsura", false));
+
+	private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[4096]);
+
+	private static char[] buildTable(boolean normalizeAlef, boolean normalizeTaMarbuta, boolean normalizeAlefMaqsura) {
+		char[] table = new char[Character.MAX_VALUE + 1];
+		for (int c = 0; c <= Character.MAX_VALUE; c++) {
+			if (Character.isSurrogate((char) c)) {
+				table[c] = SURROGATE;
+			} else if (ArabicTokenizer.isWhitespace((char) c)
+					|| Character.UnicodeScript.of(c) == Character.UnicodeScript.ARABIC) {
+				table[c] = (char) c;
+			} else {
+				table[c] = DROP;
+			}
+		}
+		for (char diacritic : DIACRITICS) {
+			table[diacritic] = DROP;
+		}
+
+		if (normalizeAlef) {
+			for (char alef : new char[] { 'أ', 'إ', 'آ', 'ٱ' }) {
+				table[alef] = 'ا';
+			}
+		}
+		if (normalizeTaMarbuta) {
+			table['ة'] = 'ه';
+		}
+		if (normalizeAlefMaqsura) {
+			table['ى'] = 'ي';
+		}
+		return table;
+	}
 
 	public static String removeHarakat(String text) {
-		StringBuilder result = new StringBuilder();
-		for (char ch : text.toCharArray()) {
-			if (!DIACRITICS.contains(ch)) {
+		StringBuilder result = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			if (!isDiacritic(ch)) {
 				result.append(ch);
 			}
 		}
@@ -23,8 +68,47 @@ public class PreProcessText {
 	}
 
 	public static String preprocessText(String text) {
-		text = removeHarakat(text);
-		text = removeNonArabicCharacters(text);
-		return text.toLowerCase();
+		int length = text.length();
+		char[] buffer = BUFFER.get();
+		if (buffer.length < length) {
+			buffer = new char[Math.max(length, buffer.length * 2)];
+			if (buffer.length <= MAX_RETAINED_BUFFER) {
+				BUFFER.set(buffer);
+			}
+		}
+
+		int size = 0;
+		boolean changed = false;
+		for (int i = 0; i < length; i++) {
+			char ch = text.charAt(i);
+			char mapped = NORMALIZED[ch];
+			if (mapped == SURROGATE) {
+				// Arabic letters outside the BMP (e.g. Rumi numerals) are kept as whole pairs
+				if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+					char low = text.charAt(++i);
+					if (Character.UnicodeScript.of(Character.toCodePoint(ch, low)) == Character.UnicodeScript.ARABIC) {
+						buffer[size++] = ch;
+						buffer[size++] = low;
+						continue;
+					}
+				}
+				changed = true;
+			} else if (mapped != DROP) {
+				buffer[size++] = mapped;
+				changed |= mapped != ch;
+			} else {
+				changed = true;
+			}
+		}
+		return changed ? new String(buffer, 0, size) : text;
+	}
+
+	private static boolean isDiacritic(char ch) {
+		for (char diacritic : DIACRITICS) {
+			if (ch == diacritic) {
+				return true;
+			}
+		}
+		return false;
 	}
 }
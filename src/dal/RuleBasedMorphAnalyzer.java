@@ -0,0 +1,80 @@
+package dal;
+
+import java.util.Collections;
+
+import dto.WordAnalysis;
+
+/**
+ * Lightweight stand-in for AlKhalil that strips the common prefixes and
+ * suffixes from WordSegmentation. It is much less accurate, but needs no
+ * external jar, which makes it useful for offline runs and for measuring
+ * pipeline throughput apart from analyzer cost.
+ */
+public class RuleBasedMorphAnalyzer implements MorphAnalyzer {
+	private static final int MIN_STEM_LENGTH = 2;
+	private static final String WEAK_LETTERS = "اوي";
+	private static final String DEFINITE_ARTICLE = "ال";
+	private static final String CONJUNCTIONS = "وف";
+
+	@Override
+	public WordAnalysis analyze(String token) {
+		String prefix = stripablePrefix(token);
+		String withoutPrefix = token.substring(prefix.length());
+
+		String suffix = WordSegmentation.getSuffix(withoutPrefix);
+		if (withoutPrefix.length() - suffix.length() < MIN_STEM_LENGTH) {
+			suffix = "";
+		}
+		String stem = withoutPrefix.substring(0, withoutPrefix.length() - suffix.length());
+
+		String lemma = prefix.endsWith(DEFINITE_ARTICLE) ? withoutPrefix : token;
+		String root = extractRoot(stem);
+		String pos = guessPartOfSpeech(token, prefix, suffix);
+		String segment = (prefix.isEmpty() ? "" : prefix + "-") + stem + (suffix.isEmpty() ? "" : "-" + suffix);
+
+		return new WordAnalysis(token, lemma, root, stem, Collections.singletonList(pos), segment);
+	}
+
+	private static String stripablePrefix(String token) {
+		String prefix = WordSegmentation.getPrefix(token);
+		if (prefix.isEmpty()) {
+			return prefix;
+		}
+		String rest = token.substring(prefix.length());
+		// One-letter prefixes are too often part of the stem, so only strip them in
+		// front of the article or when they are a conjunction before a long word.
+		if (!prefix.equals(DEFINITE_ARTICLE) && rest.startsWith(DEFINITE_ARTICLE)) {
+			prefix += DEFINITE_ARTICLE;
+		} else if (!prefix.equals(DEFINITE_ARTICLE)
+				&& (CONJUNCTIONS.indexOf(prefix.charAt(0)) < 0 || rest.length() < 3)) {
+			return "";
+		}
+		return token.length() - prefix.length() < MIN_STEM_LENGTH ? "" : prefix;
+	}
+
+	private static String extractRoot(String stem) {
+		if (stem.length() <= 3) {
+			return stem;
+		}
+		// Drop long vowels after the first letter until a triliteral root remains.
+		StringBuilder root = new StringBuilder(stem.length());
+		root.append(stem.charAt(0));
+		for (int i = 1; i < stem.length(); i++) {
+			char ch = stem.charAt(i);
+			if (WEAK_LETTERS.indexOf(ch) < 0) {
+				root.append(ch);
+			}
+		}
+		return root.length() >= 3 ? root.substring(0, 3) : stem.substring(0, 3);
+	}
+
+	private static String guessPartOfSpeech(String token, String prefix, String suffix) {
+		if (prefix.endsWith(DEFINITE_ARTICLE) || "ة".equals(suffix) || "ات".equals(suffix)) {
+			return "noun";
+		}
+		if (token.length() >= 4 && "يتنأ".indexOf(token.charAt(0)) >= 0) {
+			return "verb";
+		}
+		return MorphologyEngine.NONE;
+	}
+}
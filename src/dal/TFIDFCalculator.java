@@ -1,13 +1,11 @@
 package dal;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class TFIDFCalculator {
 
@@ -18,54 +16,65 @@ public class TFIDFCalculator {
 	}
 
 	public double calculateDocumentTfIdf(String document) {
-		String preprocessedDoc = PreProcessText.preprocessText(document);
-		String[] words = preprocessedDoc.split("\\s+");
-		List<String> wordList = Arrays.asList(words);
+		return calculateDocumentTfIdf(document, calculateDocumentFrequency(), corpus.size());
+	}
+
+	/**
+	 * Scores a document against precomputed document frequencies, so callers
+	 * that keep df per term do not have to hold the whole corpus.
+	 */
+	public static double calculateDocumentTfIdf(String document, Map<String, Integer> documentFrequency,
+			int totalDocs) {
+		return calculateDocumentTfIdf(countTerms(document, new HashMap<>()), documentFrequency, totalDocs);
+	}
 
-		Map<String, Double> tf = calculateTermFrequency(wordList);
-		Map<String, Double> idf = calculateInverseDocumentFrequency();
+	/**
+	 * Same score from the term counts of a document, which can be gathered
+	 * page by page with countTerms.
+	 */
+	public static double calculateDocumentTfIdf(Map<String, Integer> termCounts,
+			Map<String, Integer> documentFrequency, int totalDocs) {
+		long totalWords = 0;
+		for (int count : termCounts.values()) {
+			totalWords += count;
+		}
+		if (totalWords == 0) {
+			return 0.0;
+		}
 
 		double totalTfIdf = 0.0;
-		for (String word : tf.keySet()) {
-			double tfValue = tf.get(word);
-			double idfValue = idf.getOrDefault(word, Math.log(corpus.size() + 1));
+		for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
+			double tfValue = entry.getValue() / (double) totalWords;
+			Integer df = documentFrequency.get(entry.getKey());
+			double idfValue = df != null ? Math.log((double) totalDocs / (1 + df)) : Math.log(totalDocs + 1);
 			totalTfIdf += tfValue * idfValue;
 		}
 
-		return totalTfIdf / wordList.size();
+		return totalTfIdf / totalWords;
 	}
 
-	private Map<String, Double> calculateTermFrequency(List<String> wordList) {
-		Map<String, Double> tf = new HashMap<>();
-		double totalWords = wordList.size();
-
-		for (String word : wordList) {
-			tf.put(word, tf.getOrDefault(word, 0.0) + 1);
+	/**
+	 * Adds the preprocessed tokens of text to counts and returns counts.
+	 */
+	public static Map<String, Integer> countTerms(String text, Map<String, Integer> counts) {
+		ArabicTokenizer tokens = new ArabicTokenizer(PreProcessText.preprocessText(text));
+		while (tokens.next()) {
+			counts.merge(tokens.token(), 1, Integer::sum);
 		}
-
-		for (String word : tf.keySet()) {
-			tf.put(word, tf.get(word) / totalWords);
-		}
-
-		return tf;
+		return counts;
 	}
 
-	private Map<String, Double> calculateInverseDocumentFrequency() {
-		Map<String, Double> idf = new HashMap<>();
-		int totalDocs = corpus.size();
+	private Map<String, Integer> calculateDocumentFrequency() {
+		Map<String, Integer> df = new HashMap<>();
 
 		for (String doc : corpus) {
-			Set<String> uniqueWords = Arrays.stream(doc.split("\\s+")).collect(Collectors.toSet());
+			Set<String> uniqueWords = new HashSet<>(ArabicTokenizer.tokens(doc));
 			for (String word : uniqueWords) {
-				idf.put(word, idf.getOrDefault(word, 0.0) + 1);
+				df.merge(word, 1, Integer::sum);
 			}
 		}
 
-		for (String word : idf.keySet()) {
-			idf.put(word, Math.log((double) totalDocs / (1 + idf.get(word))));
-		}
-
-		return idf;
+		return df;
 	}
 
 //    public static void main(String[] args) {
@@ -1,72 +1,45 @@
 package dal;
 
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import net.oujda_nlp_team.AlKhalil2Analyzer;
-import net.oujda_nlp_team.entity.Result;
-import pl.EditorPO;
+import dto.WordAnalysis;
 
 public class WordSegmentation {
+	static final String[] COMMON_PREFIXES = { "ال", "ب", "ت", "ك", "م", "و", "ف", "س" };
+	static final String[] COMMON_SUFFIXES = { "ة", "ون", "ين", "ات", "ي", "ه" };
 
 	public static Map<String, String> extractSegments(String text) {
+		return extractSegments(MorphologyEngine.getInstance().analyzeText(text));
+	}
 
+	public static Map<String, String> extractSegments(Map<String, WordAnalysis> analyses) {
 		Map<String, String> wordSegmentMap = new LinkedHashMap<>();
-		final Logger logger = LogManager.getLogger(EditorPO.class);
-
-		String[] words = text.split("\\s+");
-
-		try {
-
-			AlKhalil2Analyzer analyzer = AlKhalil2Analyzer.getInstance();
-
-			if (analyzer != null) {
-				for (String word : words) {
-
-					List<Result> results = analyzer.processToken(word).getAllResults();
-
-					if (results != null && !results.isEmpty()) {
-
-						Result firstResult = results.get(0);
-						String stem = firstResult.getStem();
 
-						String prefix = getPrefix(word);
-						String suffix = getSuffix(word);
+		for (WordAnalysis analysis : analyses.values()) {
+			wordSegmentMap.put(analysis.getWord(), analysis.getSegment());
+		}
 
-						StringBuilder segmentBuilder = new StringBuilder();
-						if (!prefix.isEmpty()) {
-							segmentBuilder.append(prefix).append("-");
-						}
-						segmentBuilder.append(stem);
-						if (!suffix.isEmpty()) {
-							segmentBuilder.append("-").append(suffix);
-						}
+		return wordSegmentMap;
+	}
 
-						wordSegmentMap.put(word, segmentBuilder.toString());
-					} else {
+	static String buildSegment(String word, String stem) {
+		String prefix = getPrefix(word);
+		String suffix = getSuffix(word);
 
-						wordSegmentMap.put(word, "None");
-					}
-				}
-			} else {
-				System.err.println("Failed to initialize AlKhalil2Analyzer.");
-				logger.error("Failed to initialize AlKhalil2Analyzer.");
-			}
-		} catch (Exception e) {
-			System.err.println("Error while extracting word segments: " + e.getMessage());
-			logger.error("Error while extracting word segments: " + e.getMessage());
+		StringBuilder segmentBuilder = new StringBuilder();
+		if (!prefix.isEmpty()) {
+			segmentBuilder.append(prefix).append("-");
 		}
-
-		return wordSegmentMap;
+		segmentBuilder.append(stem);
+		if (!suffix.isEmpty()) {
+			segmentBuilder.append("-").append(suffix);
+		}
+		return segmentBuilder.toString();
 	}
 
-	private static String getPrefix(String word) {
-		String[] commonPrefixes = { "ال", "ب", "ت", "ك", "م", "و", "ف", "س" };
-		for (String prefix : commonPrefixes) {
+	static String getPrefix(String word) {
+		for (String prefix : COMMON_PREFIXES) {
 			if (word.startsWith(prefix)) {
 				return prefix;
 			}
@@ -74,10 +47,8 @@ public class WordSegmentation {
 		return "";
 	}
 
-	private static String getSuffix(String word) {
-		String[] commonSuffixes = { "ة", "ون", "ين", "ات", "ي", "ه" };
-
-		for (String suffix : commonSuffixes) {
+	static String getSuffix(String word) {
+		for (String suffix : COMMON_SUFFIXES) {
 			if (word.endsWith(suffix)) {
 				return suffix;
 			}
@@ -0,0 +1,50 @@
+package dto;
+
+public class FileSummary {
+	private int id;
+	private String name;
+	private String hash;
+	private String lastModified;
+	private String dateCreated;
+	private int pageCount;
+	private long contentLength;
+
+	public FileSummary(int id, String name, String hash, String lastModified, String dateCreated, int pageCount,
+			long contentLength) {
+		this.id = id;
+		this.name = name;
+		this.hash = hash;
+		this.lastModified = lastModified;
+		this.dateCreated = dateCreated;
+		this.pageCount = pageCount;
+		this.contentLength = contentLength;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getHash() {
+		return hash;
+	}
+
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	public String getDateCreated() {
+		return dateCreated;
+	}
+
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	public long getContentLength() {
+		return contentLength;
+	}
+}
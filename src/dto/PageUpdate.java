@@ -0,0 +1,13 @@
+package dto;
+
+/**
+ * What saving a page changed in the database.
+ */
+public enum PageUpdate {
+	/** The page already held this text under this file name. */
+	UNCHANGED,
+	/** Only the file name changed. */
+	RENAMED,
+	/** The page text changed. */
+	UPDATED
+}
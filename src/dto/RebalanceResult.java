@@ -0,0 +1,51 @@
+package dto;
+
+/**
+ * Outcome of rebalancing a page: the page that now starts with its text and
+ * the range of pages, numbered as they are now, whose content or number
+ * changed. Pages past the range were only removed, when a merge shortened
+ * the file.
+ */
+public class RebalanceResult {
+	private int pageNumber;
+	private int firstChangedPage;
+	private int lastChangedPage;
+	private int pageCountChange;
+
+	/**
+	 * A rebalance that left every page as it was.
+	 */
+	public RebalanceResult(int pageNumber) {
+		this(pageNumber, 0, -1, 0);
+	}
+
+	public RebalanceResult(int pageNumber, int firstChangedPage, int lastChangedPage, int pageCountChange) {
+		this.pageNumber = pageNumber;
+		this.firstChangedPage = firstChangedPage;
+		this.lastChangedPage = lastChangedPage;
+		this.pageCountChange = pageCountChange;
+	}
+
+	public int getPageNumber() {
+		return pageNumber;
+	}
+
+	public boolean isChanged() {
+		return firstChangedPage <= lastChangedPage;
+	}
+
+	public int getFirstChangedPage() {
+		return firstChangedPage;
+	}
+
+	public int getLastChangedPage() {
+		return lastChangedPage;
+	}
+
+	/**
+	 * Pages added by a split, or a negative count removed by a merge.
+	 */
+	public int getPageCountChange() {
+		return pageCountChange;
+	}
+}
@@ -0,0 +1,16 @@
+package dto;
+
+public enum SearchMode {
+	KEYWORD("Keyword"), ROOT("Root"), LEMMA("Lemma"), STEM("Stem"), PHRASE("Phrase / NEAR"), FUZZY("Fuzzy");
+
+	private final String label;
+
+	SearchMode(String label) {
+		this.label = label;
+	}
+
+	@Override
+	public String toString() {
+		return label;
+	}
+}
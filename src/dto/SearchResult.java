@@ -0,0 +1,49 @@
+package dto;
+
+public class SearchResult {
+	private int fileId;
+	private String fileName;
+	private int pageNumber;
+	private String word;
+	private int position;
+
+	public SearchResult(int fileId, String fileName, int pageNumber, String word) {
+		this(fileId, fileName, pageNumber, word, -1);
+	}
+
+	public SearchResult(int fileId, String fileName, int pageNumber, String word, int position) {
+		this.fileId = fileId;
+		this.fileName = fileName;
+		this.pageNumber = pageNumber;
+		this.word = word;
+		this.position = position;
+	}
+
+	public int getFileId() {
+		return fileId;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public int getPageNumber() {
+		return pageNumber;
+	}
+
+	public String getWord() {
+		return word;
+	}
+
+	/**
+	 * Word offset of the match within its page, or -1 if not known.
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	@Override
+	public String toString() {
+		return fileName + " - page " + pageNumber + " - " + word;
+	}
+}
@@ -0,0 +1,45 @@
+package dto;
+
+import java.util.List;
+
+public class WordAnalysis {
+	private String word;
+	private String lemma;
+	private String root;
+	private String stem;
+	private List<String> pos;
+	private String segment;
+
+	public WordAnalysis(String word, String lemma, String root, String stem, List<String> pos, String segment) {
+		this.word = word;
+		this.lemma = lemma;
+		this.root = root;
+		this.stem = stem;
+		this.pos = pos;
+		this.segment = segment;
+	}
+
+	public String getWord() {
+		return word;
+	}
+
+	public String getLemma() {
+		return lemma;
+	}
+
+	public String getRoot() {
+		return root;
+	}
+
+	public String getStem() {
+		return stem;
+	}
+
+	public List<String> getPos() {
+		return pos;
+	}
+
+	public String getSegment() {
+		return segment;
+	}
+}
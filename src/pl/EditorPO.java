@@ -20,6 +20,7 @@ import java.util.function.Supplier;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -38,8 +39,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import bll.IEditorBO;
+import bll.TextStatistics;
 import dto.Documents;
+import dto.FileSummary;
 import dto.Pages;
+import dto.SearchMode;
+import dto.SearchResult;
 
 public class EditorPO extends JFrame {
 
@@ -57,8 +62,7 @@ public class EditorPO extends JFrame {
 	private JLabel importProgressLabel;
 	private JLabel avgWordLengthLabel;
 	private JLabel totalLineCountLabel;
-	private Documents doc;
-	private List<Pages> pages;
+	private PageWindow pageWindow;
 	private int currentPage = 1;
 	private int totalPageCount = 0;
 	private int selectedRow = 0;
@@ -151,6 +155,7 @@ public class EditorPO extends JFrame {
 		JButton tfidfButton = new JButton("TF-IDF");
 		tfidfButton.setEnabled(false);
 		JTextField searchfield = new JTextField(20);
+		JComboBox<SearchMode> searchModeBox = new JComboBox<>(SearchMode.values());
 		JButton searchbutton = new JButton("Search");
 		importProgressLabel = new JLabel();
 		importProgressLabel.setText("");
@@ -163,6 +168,7 @@ public class EditorPO extends JFrame {
         deleteFileButton.setFont(buttonFont);
         viewFilesButton.setFont(buttonFont);
         tfidfButton.setFont(buttonFont);
+        searchModeBox.setFont(buttonFont);
         searchbutton.setFont(buttonFont);
         importProgressLabel.setFont(buttonFont);
 		
@@ -189,6 +195,7 @@ public class EditorPO extends JFrame {
 		buttonPanel.add(viewFilesButton);
 		buttonPanel.add(tfidfButton);
 		buttonPanel.add(searchfield);
+		buttonPanel.add(searchModeBox);
 		buttonPanel.add(searchbutton);
 
 		mainPanel.add(buttonPanel, BorderLayout.NORTH);
@@ -211,24 +218,19 @@ public class EditorPO extends JFrame {
 							selectedDocFileId = (int) tableModel.getValueAt(selectedRow, 0);
 							selectedDoc = null;
 							selectedDoc = businessObj.getFile(selectedDocFileId);
-							pages = selectedDoc.getPages();
+							List<Pages> pages = selectedDoc.getPages();
 							String selectedDocContent = null;
 							for (int i = 0; i < pages.size(); i++) {
 								selectedDocContent = pages.get(i).getPageContent();
 							}
 
+							// One query for the other files' last pages, rather than opening every document
+							Map<Integer, String> lastPages = businessObj.getLastPageContents();
 							List<String> unselectedDocsContent = new ArrayList<String>();
 							for (int row = 0; row < fileTable.getRowCount(); row++) {
 								int unselectedDocFileId = (int) tableModel.getValueAt(row, 0);
 								if (unselectedDocFileId != selectedDocFileId) {
-									Documents unselectedDoc = null;
-									unselectedDoc = businessObj.getFile(unselectedDocFileId);
-									pages = unselectedDoc.getPages();
-									String unselectedDocContent = null;
-									for (int i = 0; i < pages.size(); i++) {
-										unselectedDocContent = pages.get(i).getPageContent();
-									}
-									unselectedDocsContent.add(unselectedDocContent);
+									unselectedDocsContent.add(lastPages.get(unselectedDocFileId));
 								}
 							}
 							tfidfScore = businessObj.performTFIDF(unselectedDocsContent, selectedDocContent);
@@ -279,13 +281,31 @@ public class EditorPO extends JFrame {
 		});
 		searchbutton.addActionListener(e -> {
 			String keyword = searchfield.getText();
+			SearchMode mode = (SearchMode) searchModeBox.getSelectedItem();
 			try {
-				List<String> resultFiles = businessObj.searchKeyword(keyword);
-				if (resultFiles.isEmpty()) {
-					JOptionPane.showMessageDialog(this, "No files found while searching.");
-					logger.info("No files found while searching.");
+				if (mode == SearchMode.KEYWORD) {
+					List<String> resultFiles = businessObj.searchKeyword(keyword);
+					if (resultFiles.isEmpty()) {
+						JOptionPane.showMessageDialog(this, "No files found while searching.");
+						logger.info("No files found while searching.");
+					} else {
+						new SearchFrame(resultFiles);
+					}
 				} else {
-					new SearchFrame(resultFiles);
+					List<SearchResult> results;
+					if (mode == SearchMode.PHRASE) {
+						results = businessObj.searchPhrase(keyword);
+					} else if (mode == SearchMode.FUZZY) {
+						results = businessObj.searchFuzzy(keyword);
+					} else {
+						results = businessObj.searchMorphology(keyword, mode);
+					}
+					if (results.isEmpty()) {
+						JOptionPane.showMessageDialog(this, "No pages found for '" + keyword + "' by " + mode + ".");
+						logger.info("No pages found for '" + keyword + "' by " + mode + ".");
+					} else {
+						new SearchFrame(results, mode);
+					}
 				}
 			} catch (IllegalArgumentException exception) {
 				JOptionPane.showMessageDialog(this, exception.getMessage());
@@ -616,29 +636,11 @@ public class EditorPO extends JFrame {
 	}
 	
 	private double calculateAvgWordLength(String content) {
-	    if (content == null || content.isEmpty()) {
-	        return 0;
-	    }
-
-	    String[] words = content.split("\\s+");
-	    int totalLength = 0;
-	    int wordCount = 0;
-
-	    for (String word : words) {
-	        if (!word.isEmpty()) {
-	            totalLength += word.length();
-	            wordCount++;
-	        }
-	    }
-
-	    return wordCount == 0 ? 0 : (double) totalLength / wordCount;
+	    return TextStatistics.averageWordLength(content);
 	}
 	
 	private int calculateWordCount(String text) {
-	    if (text == null || text.trim().isEmpty()) {
-	        return 0;
-	    }
-	    return text.trim().split("\\s+").length;
+	    return TextStatistics.wordCount(text);
 	}
 	
 	private int calculateLineCount(String content) {
@@ -651,20 +653,15 @@ public class EditorPO extends JFrame {
 
 	private void openEditPanel(int fileId) {
 		currentPage = 1;
-		doc = businessObj.getFile(fileId);
-		pages = doc.getPages();
-		totalPageCount = pages.size();
+		if (pageWindow != null) {
+			pageWindow.close();
+		}
+		pageWindow = new PageWindow(businessObj, fileId);
+		totalPageCount = pageWindow.getPageCount();
 
 		loadPage(currentPage);
 
-		if (autoSaveThread != null && autoSaveThread.isAlive()) {
-			autoSaveRunning = false;
-			try {
-				autoSaveThread.join();
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
-			}
-		}
+		stopAutoSave();
 
 		autoSaveThread = new Thread(new Runnable() {
 
@@ -858,11 +855,20 @@ public class EditorPO extends JFrame {
 				content = "";
 			}
 
+			// An autosave of the old text after the pages are rebalanced would duplicate it
+			stopAutoSave();
 			boolean updated = businessObj.updateFile(fileId, fileName, currentPage, content);
+			int page = currentPage;
+			if (updated) {
+				int rebalanced = businessObj.rebalancePage(fileId, currentPage);
+				if (rebalanced > 0) {
+					page = rebalanced;
+				}
+			}
 			JOptionPane.showMessageDialog(null,
 					updated ? "File updated successfully!" : "File update failed. Duplicate file may exist.");
 			logger.info(updated ? "File updated successfully!" : "File update failed. Duplicate file may exist.");
-			refreshFilePage(fileId, currentPage);
+			refreshFilePage(fileId, page);
 		} else {
 			JOptionPane.showMessageDialog(null, "Please select a file to save.");
 		}
@@ -879,8 +885,10 @@ public class EditorPO extends JFrame {
 				content = "";
 			}
 
-			boolean updated = businessObj.updateFile(fileId, fileName, currentPage, content);
+			int savedPage = currentPage;
+			boolean updated = businessObj.updateFile(fileId, fileName, savedPage, content);
 			if (updated) {
+				pageWindow.update(savedPage, content);
 				savingStatusLabel.setVisible(true);
 				Thread.sleep(5000);
 				savingStatusLabel.setVisible(false);
@@ -906,13 +914,8 @@ public class EditorPO extends JFrame {
 	}
 
 	private void loadPage(int page) {
-		String pageContent = "";
-		for (int i = 0; i < pages.size(); i++) {
-			if (page == pages.get(i).getPageNumber()) {
-				pageContent = pages.get(i).getPageContent();
-			}
-		}
-		contentTextArea.setText(pageContent);
+		Pages loaded = pageWindow.getPage(page);
+		contentTextArea.setText(loaded != null ? loaded.getPageContent() : "");
 
 		pageCountLabel.setText("Page " + (page) + " of " + totalPageCount);
 
@@ -928,7 +931,7 @@ public class EditorPO extends JFrame {
 
 	private void transliterateContent() {
 		String content = contentTextArea.getText();
-		int pageId = pages.get(currentPage - 1).getPageId();
+		int pageId = pageWindow.getPage(currentPage).getPageId();
 		if (content != null && !content.trim().isEmpty()) {
 			String transliteratedContent = businessObj.transliterate(pageId, content);
 			transliteratedTextArea.setText(transliteratedContent);
@@ -943,14 +946,27 @@ public class EditorPO extends JFrame {
 
 	private void refreshFilePage(int fileId, int currPage) {
 		openEditPanel(fileId);
-		loadPage(currPage);
+		currentPage = Math.max(1, Math.min(currPage, totalPageCount));
+		loadPage(currentPage);
+	}
+
+	private void stopAutoSave() {
+		autoSaveRunning = false;
+		if (autoSaveThread != null && autoSaveThread.isAlive()) {
+			autoSaveThread.interrupt();
+			try {
+				autoSaveThread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
 	}
 
 	private void refreshFileList() {
-		List<Documents> docs = businessObj.getAllFiles();
+		List<FileSummary> docs = businessObj.listFileSummaries();
 		tableModel.setRowCount(0);
 
-		for (Documents doc : docs) {
+		for (FileSummary doc : docs) {
 			Object[] rowData = { doc.getId(), doc.getName(), doc.getLastModified(), doc.getDateCreated() };
 			tableModel.addRow(rowData);
 		}
@@ -0,0 +1,111 @@
+package pl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import bll.IEditorBO;
+import dto.Pages;
+
+/**
+ * The pages of one open file around the page being edited. Only the current
+ * page and up to RADIUS pages on either side are held; after each move the
+ * missing neighbours are fetched in the background and pages that fell out
+ * of the window are dropped, so next/previous are usually served from memory.
+ */
+class PageWindow {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final int RADIUS = 2;
+
+	private final IEditorBO businessObj;
+	private final int fileId;
+	private final int pageCount;
+	private final Map<Integer, Pages> window = new ConcurrentHashMap<>();
+	private final ExecutorService prefetcher;
+	private volatile int center = 1;
+
+	PageWindow(IEditorBO businessObj, int fileId) {
+		this.businessObj = businessObj;
+		this.fileId = fileId;
+		this.pageCount = businessObj.getPageCount(fileId);
+		this.prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "page-prefetch-" + fileId);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	int getPageCount() {
+		return pageCount;
+	}
+
+	/**
+	 * Returns the page, loading it on the caller's thread if the prefetcher
+	 * has not got to it yet, or null if the file has no such page.
+	 */
+	Pages getPage(int pageNumber) {
+		center = pageNumber;
+		Pages page = window.get(pageNumber);
+		if (page == null) {
+			load(pageNumber, pageNumber);
+			page = window.get(pageNumber);
+		}
+		prefetch(pageNumber);
+		return page;
+	}
+
+	/**
+	 * Records content that was just saved for a page so moving back to it
+	 * shows the saved text rather than what was loaded before.
+	 */
+	void update(int pageNumber, String content) {
+		Pages page = window.get(pageNumber);
+		if (page != null) {
+			window.put(pageNumber, new Pages(page.getPageId(), fileId, pageNumber, content));
+		}
+	}
+
+	void close() {
+		prefetcher.shutdownNow();
+		window.clear();
+	}
+
+	private void prefetch(int pageNumber) {
+		try {
+			prefetcher.execute(() -> {
+				// A later move has already queued its own prefetch
+				if (pageNumber != center) {
+					return;
+				}
+				int first = Math.max(1, pageNumber - RADIUS);
+				int last = Math.min(pageCount, pageNumber + RADIUS);
+				while (first <= last && window.containsKey(first)) {
+					first++;
+				}
+				while (last >= first && window.containsKey(last)) {
+					last--;
+				}
+				if (first <= last) {
+					load(first, last);
+				}
+				window.keySet().removeIf(number -> Math.abs(number - center) > RADIUS);
+			});
+		} catch (RuntimeException e) {
+			// Closed while the editor was still moving; the page itself is already loaded
+			LOGGER.debug("Skipped page prefetch: " + e.getMessage());
+		}
+	}
+
+	private void load(int firstPage, int lastPage) {
+		List<Pages> pages = businessObj.getPages(fileId, firstPage, lastPage);
+		for (Pages page : pages) {
+			// Never overwrite a page updated after this read started
+			window.putIfAbsent(page.getPageNumber(), page);
+		}
+	}
+}
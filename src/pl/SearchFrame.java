@@ -6,6 +6,9 @@ import javax.swing.table.TableCellRenderer;
 import java.awt.*;
 import java.util.List;
 
+import dto.SearchMode;
+import dto.SearchResult;
+
 class ButtonColumn extends JButton {
     /**
 	 * 
@@ -86,4 +89,38 @@ public class SearchFrame extends JFrame {
 
         setVisible(true);
     }
+
+    public SearchFrame(List<SearchResult> searchResults, SearchMode mode) {
+        setTitle("Search Results by " + mode);
+        setExtendedState(JFrame.MAXIMIZED_BOTH);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setLayout(new BorderLayout());
+
+        DefaultTableModel model = new DefaultTableModel(new Object[]{"File Name", "Page", "Word Offset", "Words"}, 0) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (SearchResult result : searchResults) {
+            model.addRow(new Object[]{result.getFileName(), result.getPageNumber(),
+                    result.getPosition() >= 0 ? result.getPosition() + 1 : "", result.getWord()});
+        }
+        resultsTable = new JTable(model);
+
+        JButton backButton = new JButton("Back to Menu");
+        backButton.addActionListener(e -> {
+            dispose();
+        });
+
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.add(backButton);
+        add(new JScrollPane(resultsTable), BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        setVisible(true);
+    }
 }
\ No newline at end of file